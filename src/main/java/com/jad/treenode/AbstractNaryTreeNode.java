@@ -0,0 +1,344 @@
+package com.jad.treenode;
+
+import com.google.gson.Gson;
+
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Skeletal implementation of the INaryTreeNode interface.
+ * All the read operations of the tree (text and JSON representations, traversals, searches and measures)
+ * are implemented on top of {@link #getValue()} and {@link #getChildren()}, so that node implementations
+ * only have to provide their storage and their modification operations.
+ * <p>
+ * Two nodes are equal when they hold equal values and equal children in the same order,
+ * whatever their implementation. The hash code of a node is its structural hash.
+ * <p>
+ * <b>Warning: equality and hash code are structural, and nodes are mutable.</b>
+ * The hash code of a node changes whenever its subtree changes, so a node used as a key of a HashMap
+ * or as an element of a HashSet can no longer be found once its subtree is modified.
+ * Collections of nodes that must survive modifications should compare nodes by identity,
+ * with an IdentityHashMap or {@code Collections.newSetFromMap(new IdentityHashMap<>())}.
+ *
+ * @param <E> - the type of elements held in this node
+ */
+public abstract class AbstractNaryTreeNode<E> implements INaryTreeNode<E> {
+    private static <E> String toPrettyText(final INaryTreeNode<E> node, final int depth) {
+        return MessageFormat.format("{0}{1}{2}\n{3}",
+                                    NaryTreeNodeUtils.VALUE_PRETTY_DEPTH.repeat(depth - 1),
+                                    NaryTreeNodeUtils.VALUE_PRETTY_CHILDREN_PREFIX,
+                                    node.getValue().toString(),
+                                    node.getChildren().stream().map(
+                                                    child -> AbstractNaryTreeNode.toPrettyText(child, depth + 1))
+                                            .collect(Collectors.joining("")));
+    }
+
+    /**
+     * Returns the structural hash of a subtree, reusing and filling the hashes cached by the nodes it contains.
+     * The hash of a node combines the hash of its value with the hashes of its children, in order.
+     *
+     * @param root - the root of the subtree
+     * @param <E>  - the type of elements held in the subtree
+     *
+     * @return the structural hash of the subtree
+     */
+    static <E> int structuralHash(final INaryTreeNode<E> root) {
+        if ((root instanceof AbstractNaryTreeNode<E> node) && node.isStructuralHashKnown()) {
+            return node.knownStructuralHash();
+        }
+        final Deque<HashFrame<E>> stack = new ArrayDeque<>();
+        stack.push(new HashFrame<>(root));
+        int hash = 0;
+        while (!stack.isEmpty()) {
+            final HashFrame<E> frame = stack.peek();
+            if (frame.children.hasNext()) {
+                final INaryTreeNode<E> child = frame.children.next();
+                if ((child instanceof AbstractNaryTreeNode<E> known) && known.isStructuralHashKnown()) {
+                    frame.fold(known.knownStructuralHash(), known.isStructuralHashStableUnder(frame.node));
+                } else {
+                    stack.push(new HashFrame<>(child));
+                }
+                continue;
+            }
+            stack.pop();
+            hash = 31 * frame.hash + frame.node.getChildrenCount();
+            boolean stable = false;
+            if ((frame.node instanceof AbstractNaryTreeNode<E> node) && frame.cacheable) {
+                node.cacheStructuralHash(hash);
+                stable = !stack.isEmpty() && node.isStructuralHashStableUnder(stack.peek().node);
+            }
+            if (!stack.isEmpty()) {
+                stack.peek().fold(hash, stable);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the structural hash of this subtree.
+     * Two equal subtrees have the same structural hash, so two subtrees with different hashes are different.
+     * Comparing the hash of a tree before and after some operations tells cheaply whether it has changed.
+     *
+     * @return the structural hash of this subtree
+     */
+    public int structuralHash() {
+        return AbstractNaryTreeNode.structuralHash(this);
+    }
+
+    /**
+     * Returns True if the structural hash of this node is known without walking its subtree.
+     */
+    boolean isStructuralHashKnown() {
+        return false;
+    }
+
+    /**
+     * Returns the structural hash of this node, provided it is known.
+     */
+    int knownStructuralHash() {
+        throw new IllegalStateException("Structural hash not known");
+    }
+
+    /**
+     * Returns True if the known structural hash of this node stays valid for as long as the given parent's one:
+     * every change to this subtree is either impossible or reported to that parent.
+     */
+    boolean isStructuralHashStableUnder(final INaryTreeNode<E> parent) {
+        return false;
+    }
+
+    /**
+     * Records the structural hash of this node, computed while none of its descendants can change unnoticed.
+     */
+    void cacheStructuralHash(final int hash) {
+    }
+
+    /**
+     * Returns the children of this node that are held in memory, without loading any.
+     */
+    List<INaryTreeNode<E>> residentChildren() {
+        return this.getChildren();
+    }
+
+    /**
+     * Returns the estimated size of the storage of the children of this node, the children excluded.
+     */
+    long childStorageBytes() {
+        final int count = this.getChildrenCount();
+        return MemoryFootprint.listBytes(count, count);
+    }
+
+    @Override
+    public INaryTreeNode<E> getChild(final int index) {
+        return this.getChildren().get(index);
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return this.getChildren().isEmpty();
+    }
+
+    @Override
+    public int getChildrenCount() {
+        return this.getChildren().size();
+    }
+
+    @Override
+    public E getRoot() {
+        return this.getValue();
+    }
+
+    @Override
+    public String generateText() {
+        final E value = this.getValue();
+        if (this.isLeaf()) {
+            return NaryTreeNodeUtils.VALUE_PREFIX + (value == null ? NaryTreeNodeUtils.VALUE_NULL :
+                    value.toString()) +
+                    NaryTreeNodeUtils.VALUE_SUFFIX;
+        }
+        return NaryTreeNodeUtils.VALUE_PREFIX + (value == null ? NaryTreeNodeUtils.VALUE_NULL :
+                value.toString()) +
+                NaryTreeNodeUtils.VALUE_SUFFIX + NaryTreeNodeUtils.VALUE_SEPARATOR
+                + this.getChildren().stream().map(INaryTree::generateText).collect(Collectors.joining(
+                NaryTreeNodeUtils.CHILDREN_SEPARATOR,
+                NaryTreeNodeUtils.CHILDREN_PREFIX, NaryTreeNodeUtils.CHILDREN_SUFFIX));
+    }
+
+    @Override
+    public boolean contains(final Object element) {
+        final E value = this.getValue();
+        if (value == null) return element == null;
+        if (value.equals(element)) return true;
+        for (final INaryTree<E> child : this.getChildren()) {
+            if (child.contains(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getHeight() {
+        if (this.isLeaf()) return 1;
+        return 1 + this.getChildren().stream().mapToInt(INaryTree::getHeight).max().getAsInt();
+    }
+
+    @Override
+    public int size() {
+        return this.isLeaf() ? 1 : 1 + this.getChildren().stream().mapToInt(INaryTree::size).sum();
+    }
+
+    @Override
+    public int getNumberOfLeaves() {
+        return this.isLeaf() ? 1 : this.getChildren().stream().mapToInt(INaryTree::getNumberOfLeaves).sum();
+    }
+
+    @Override
+    public String toJson() {
+        if (this.isLeaf()) {
+            return "{\"" + NaryTreeNodeUtils.JSON_VALUE_KEY + "\":"
+                    + new Gson().toJson(this.getValue()) + "}";
+        }
+        return "{\"" + NaryTreeNodeUtils.JSON_VALUE_KEY + "\":"
+                + new Gson().toJson(this.getValue()) + ",\"" + NaryTreeNodeUtils.JSON_CHILDREN_KEY + "\":["
+                + this.getChildren().stream().map(INaryTree::toJson).collect(Collectors.joining(",")) + "]}";
+    }
+
+    @Override
+    public String toPrettyText() {
+        return MessageFormat.format("{0}\n{1}",
+                                    this.getValue().toString(),
+                                    this.getChildren().stream().map(node -> AbstractNaryTreeNode.toPrettyText(node, 1))
+                                            .collect(Collectors.joining("")));
+    }
+
+    @Override
+    public List<E> toPostfixList() {
+        List<E> list = new LinkedList<>();
+        for (INaryTree<E> child : this.getChildren()) {
+            list.addAll(child.toPostfixList());
+        }
+        list.add(this.getValue());
+        return list;
+    }
+
+    @Override
+    public List<E> toPrefixList() {
+        List<E> list = new LinkedList<>();
+        list.add(this.getValue());
+        for (INaryTree<E> child : this.getChildren()) {
+            list.addAll(child.toPrefixList());
+        }
+        return list;
+    }
+
+    @Override
+    public List<E> toByWidthList() {
+        final List<E> list = new ArrayList<>();
+        final Iterator<E> values = TreeTraversals.byWidth(this, Integer.MAX_VALUE);
+        while (values.hasNext()) {
+            list.add(values.next());
+        }
+        return list;
+    }
+
+    @Override
+    public final INaryTree<E> getNodeFromElement(final E element) {
+        if (this.getValue() == element) return this;
+        INaryTree<E> result = null;
+        for (INaryTree<E> child : this.getChildren()) {
+            INaryTree<E> response = child.getNodeFromElement(element);
+            result = (response == null) ? result : response;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return this.toByWidthList().iterator();
+    }
+
+    /**
+     * Returns True if the other object is a node holding equal values and equal children in the same order.
+     * This is not identity: see the warning on this class before putting nodes in hash-based collections.
+     *
+     * @param other - the object to compare with
+     *
+     * @return True if both subtrees are structurally equal
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) return true;
+        if (!(other instanceof AbstractNaryTreeNode<?> otherNode)) return false;
+        if (this.structuralHash() != otherNode.structuralHash()) return false;
+        final Deque<INaryTreeNode<?>> stack = new ArrayDeque<>();
+        stack.push(this);
+        stack.push(otherNode);
+        while (!stack.isEmpty()) {
+            final INaryTreeNode<?> right = stack.pop();
+            final INaryTreeNode<?> left = stack.pop();
+            if (left == right) continue;
+            if ((left instanceof AbstractNaryTreeNode<?> leftNode) && leftNode.isStructuralHashKnown()
+                    && (right instanceof AbstractNaryTreeNode<?> rightNode) && rightNode.isStructuralHashKnown()
+                    && (leftNode.knownStructuralHash() != rightNode.knownStructuralHash())) {
+                return false;
+            }
+            if (!Objects.equals(left.getValue(), right.getValue())
+                    || (left.getChildrenCount() != right.getChildrenCount())) {
+                return false;
+            }
+            final Iterator<? extends INaryTreeNode<?>> leftChildren = left.getChildren().iterator();
+            final Iterator<? extends INaryTreeNode<?>> rightChildren = right.getChildren().iterator();
+            while (leftChildren.hasNext()) {
+                stack.push(leftChildren.next());
+                stack.push(rightChildren.next());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the structural hash of this subtree, which changes whenever the subtree changes:
+     * a node must not be modified while it is a key of a hash-based collection.
+     *
+     * @return the structural hash of this subtree
+     */
+    @Override
+    public int hashCode() {
+        return this.structuralHash();
+    }
+
+    /**
+     * A node whose structural hash is being computed, with the hashes of its children folded so far.
+     */
+    private static final class HashFrame<E> {
+        private final INaryTreeNode<E> node;
+        private final Iterator<INaryTreeNode<E>> children;
+        private int hash;
+        private boolean cacheable;
+
+        private HashFrame(final INaryTreeNode<E> node) {
+            this.node = node;
+            this.children = node.getChildren().iterator();
+            this.hash = Objects.hashCode(node.getValue());
+            this.cacheable = true;
+        }
+
+        private void fold(final int childHash, final boolean childStable) {
+            this.hash = 31 * this.hash + childHash;
+            this.cacheable &= childStable;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an asynchronous callback on every value of a tree, with a bounded number of callbacks in flight,
+ * and gathers the results in a tree of the same shape.
+ * Nodes are dispatched by width, from a queue holding only the nodes discovered and not started yet.
+ * When parents must be visited first, the children of a node are only discovered once its callback has completed.
+ *
+ * @param <E> - the type of elements in the visited tree
+ * @param <R> - the type of the results
+ */
+final class AsyncTreeVisitor<E, R> {
+    /**
+     * The default maximum number of callbacks in flight.
+     */
+    static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    private final Function<? super E, ? extends CompletionStage<R>> visitor;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final boolean parentFirst;
+    private final NaryTreeNode<R> resultRoot;
+    private final CompletableFuture<INaryTree<R>> result = new CompletableFuture<>();
+    private final Deque<Task<E, R>> pending = new ArrayDeque<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private int inFlight;
+
+    AsyncTreeVisitor(final INaryTreeNode<E> root, final Function<? super E, ? extends CompletionStage<R>> visitor,
+                     final Executor executor, final int maxConcurrency, final boolean parentFirst) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.visitor = visitor;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.parentFirst = parentFirst;
+        this.resultRoot = new NaryTreeNode<>();
+        this.pending.add(new Task<>(root, this.resultRoot));
+    }
+
+    CompletableFuture<INaryTree<R>> start() {
+        this.drain();
+        return this.result;
+    }
+
+    /**
+     * Starts as many pending tasks as allowed.
+     * Only one thread drains at a time; a request made meanwhile makes it loop once more,
+     * so that callbacks completing synchronously never deepen the stack.
+     */
+    private void drain() {
+        if (this.drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while (true) {
+                final Task<E, R> task;
+                synchronized (this) {
+                    if (this.result.isDone() || this.pending.isEmpty() || (this.inFlight >= this.maxConcurrency)) {
+                        break;
+                    }
+                    task = this.pending.poll();
+                    this.inFlight++;
+                    if (!this.parentFirst) {
+                        this.discoverChildren(task);
+                    }
+                }
+                this.run(task);
+            }
+            synchronized (this) {
+                if (this.pending.isEmpty() && (this.inFlight == 0)) {
+                    this.result.complete(new NaryTree<>(this.resultRoot));
+                }
+            }
+            requests = this.drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void discoverChildren(final Task<E, R> task) {
+        for (final INaryTreeNode<E> child : task.source.getChildren()) {
+            final NaryTreeNode<R> resultChild = new NaryTreeNode<>();
+            task.result.add(resultChild);
+            this.pending.add(new Task<>(child, resultChild));
+        }
+    }
+
+    private void run(final Task<E, R> task) {
+        try {
+            this.executor.execute(() -> {
+                try {
+                    this.visitor.apply(task.source.getValue())
+                            .whenComplete((value, failure) -> this.complete(task, value, failure));
+                } catch (final RuntimeException e) {
+                    this.complete(task, null, e);
+                }
+            });
+        } catch (final RuntimeException e) {
+            this.complete(task, null, e);
+        }
+    }
+
+    private void complete(final Task<E, R> task, final R value, final Throwable failure) {
+        synchronized (this) {
+            this.inFlight--;
+            if (failure != null) {
+                this.result.completeExceptionally(failure);
+                this.pending.clear();
+            } else {
+                task.result.setValue(value);
+                if (this.parentFirst && !this.result.isDone()) {
+                    this.discoverChildren(task);
+                }
+            }
+        }
+        this.drain();
+    }
+
+    private static final class Task<E, R> {
+        private final INaryTreeNode<E> source;
+        private final NaryTreeNode<R> result;
+
+        private Task(final INaryTreeNode<E> source, final NaryTreeNode<R> result) {
+            this.source = source;
+            this.result = result;
+        }
+    }
+}
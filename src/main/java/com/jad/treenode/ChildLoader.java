@@ -0,0 +1,21 @@
+package com.jad.treenode;
+
+import java.util.List;
+
+/**
+ * Loads the children of a node of a {@link LazyNaryTreeNode} tree, on first access.
+ * The same value must always yield the same children, since evicted children are loaded again on demand.
+ *
+ * @param <E> - the type of elements in the tree
+ */
+@FunctionalInterface
+public interface ChildLoader<E> {
+    /**
+     * Returns the values of the children of a node, in order.
+     *
+     * @param value - the value of the node
+     *
+     * @return the values of its children, empty for a leaf
+     */
+    List<E> loadChildren(E value);
+}
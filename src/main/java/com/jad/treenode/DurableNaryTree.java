@@ -0,0 +1,512 @@
+package com.jad.treenode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * A NaryTree whose modifications survive restarts and crashes.
+ * Every modification made through this class is appended to a write-ahead log and applied in memory, and only
+ * returns once its record is forced to disk: a crash never loses an acknowledged modification, nor corrupts the tree.
+ * Forces are shared (group commit): while a thread forces the log, the records appended by other threads wait for
+ * the next force, which covers them all. A single thread batches modifications by applying them as one
+ * {@link TreePatch}, logged as a single record.
+ * Every {@code checkpointEvery} records, a compact snapshot of the tree is written and the log is truncated,
+ * so that {@link #open(Path, ValueSerializer)} only replays the modifications made since the last snapshot.
+ * <p>
+ * Modifications made directly on the nodes (e.g. through {@link #getRootNode()} or
+ * {@link #getNodeFromElement(Object)}) bypass the log
+ * and are only persisted by the next snapshot.
+ * This class is thread-safe for its own modification methods.
+ * Unlike other trees, durable trees cannot be serialized.
+ *
+ * @param <E> - the type of elements in this tree
+ */
+public class DurableNaryTree<E> extends NaryTree<E> implements Closeable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default number of records appended between two snapshots.
+     */
+    public static final int DEFAULT_CHECKPOINT_EVERY = 100_000;
+
+    static final String SNAPSHOT_FILE = "tree.snapshot";
+    static final String LOG_FILE = "tree.wal";
+    private static final String SNAPSHOT_TEMPORARY_FILE = "tree.snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x4E545331;
+
+    /**
+     * Size of a record header: payload length, sequence number and checksum.
+     */
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final ValueSerializer<E> serializer;
+    private final int checkpointEvery;
+    private final FileChannel log;
+
+    /**
+     * The sequence number of the last record appended, written while holding the lock of the tree.
+     */
+    private volatile long lastSequence;
+    private int recordsSinceCheckpoint;
+
+    /**
+     * Guards the group commit: the sequence number of the last record known to be on disk,
+     * and whether a thread is forcing the log. Never acquired before the lock of the tree.
+     */
+    private final Object syncLock = new Object();
+    private long durableSequence;
+    private boolean forcing;
+
+    private DurableNaryTree(final INaryTreeNode<E> root, final Path directory, final ValueSerializer<E> serializer,
+                            final int checkpointEvery, final FileChannel log, final long lastSequence,
+                            final int recordsSinceCheckpoint) {
+        super(root);
+        this.directory = directory;
+        this.serializer = serializer;
+        this.checkpointEvery = checkpointEvery;
+        this.log = log;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        this.recordsSinceCheckpoint = recordsSinceCheckpoint;
+    }
+
+    /**
+     * Opens the durable tree stored in a directory, with the default checkpoint interval.
+     * See {@link #open(Path, ValueSerializer, int)}.
+     *
+     * @param directory  - the directory holding the snapshot and the log
+     * @param serializer - the serializer of the values
+     * @param <E>        - the type of elements in the tree
+     *
+     * @return the recovered tree
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static <E> DurableNaryTree<E> open(final Path directory, final ValueSerializer<E> serializer)
+            throws IOException {
+        return DurableNaryTree.open(directory, serializer, DurableNaryTree.DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    /**
+     * Opens the durable tree stored in a directory, creating an empty tree (a null root) if there is none.
+     * The tree is recovered from the last snapshot, then from the log records appended after it.
+     * A torn or corrupted record at the end of the log, left by a crash, is discarded with everything after it.
+     *
+     * @param directory       - the directory holding the snapshot and the log
+     * @param serializer      - the serializer of the values
+     * @param checkpointEvery - the number of records appended between two snapshots
+     * @param <E>             - the type of elements in the tree
+     *
+     * @return the recovered tree
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public static <E> DurableNaryTree<E> open(final Path directory, final ValueSerializer<E> serializer,
+                                              final int checkpointEvery) throws IOException {
+        if (checkpointEvery < 1) {
+            throw new IllegalArgumentException("checkpointEvery must be positive: " + checkpointEvery);
+        }
+        Files.createDirectories(directory);
+        NaryTreeNode<E> root = new NaryTreeNode<>();
+        long snapshotSequence = 0;
+        final Path snapshot = directory.resolve(DurableNaryTree.SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                if (input.readInt() != DurableNaryTree.SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a tree snapshot: " + snapshot);
+                }
+                snapshotSequence = input.readLong();
+                root = TreeCodec.readSubtree(input, serializer);
+            }
+        }
+        final FileChannel log = FileChannel.open(directory.resolve(DurableNaryTree.LOG_FILE), StandardOpenOption.CREATE,
+                                                 StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long lastSequence = snapshotSequence;
+            int replayed = 0;
+            long validLength = 0;
+            final long logSize = log.size();
+            final DataInputStream input = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(log.position(0))));
+            while (true) {
+                final Record record = DurableNaryTree.readRecord(input, logSize - validLength);
+                if (record == null) {
+                    break;
+                }
+                validLength += DurableNaryTree.RECORD_HEADER_BYTES + record.payload.length;
+                if (record.sequence > lastSequence) {
+                    TreePatch.fromBytes(record.payload, serializer).applyTo(root);
+                    lastSequence = record.sequence;
+                    replayed++;
+                }
+            }
+            log.truncate(validLength);
+            log.position(validLength);
+            return new DurableNaryTree<>(root, directory, serializer, checkpointEvery, log, lastSequence, replayed);
+        } catch (final IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record of the log, or returns null at the end of the valid part of the log.
+     * A length that does not fit in the rest of the log marks a torn or corrupted header.
+     *
+     * @param remaining - the number of bytes left in the log, the header of the record included
+     */
+    private static Record readRecord(final DataInputStream input, final long remaining) {
+        try {
+            final int length = input.readInt();
+            final long sequence = input.readLong();
+            final int checksum = input.readInt();
+            if ((length < 0) || (length > remaining - DurableNaryTree.RECORD_HEADER_BYTES)) {
+                return null;
+            }
+            final byte[] payload = new byte[length];
+            input.readFully(payload);
+            if (DurableNaryTree.checksum(sequence, payload) != checksum) {
+                return null;
+            }
+            return new Record(sequence, payload);
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(final long sequence, final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks a patch, appends it to the log, then applies it in memory, without waiting for the record to be on disk.
+     * A patch that does not fit the tree is rejected before being logged, so that the tree is never left half-patched;
+     * a record that fails to be written or applied is cut from the log.
+     *
+     * @return the sequence number of the record
+     */
+    private synchronized long append(final TreePatch<E> patch) {
+        patch.checkApplicableTo(this.getRootNode());
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                patch.write(output, this.serializer);
+            }
+            final byte[] payload = bytes.toByteArray();
+            final long sequence = this.lastSequence + 1;
+            final ByteBuffer record = ByteBuffer.allocate(DurableNaryTree.RECORD_HEADER_BYTES + payload.length);
+            record.putInt(payload.length).putLong(sequence).putInt(DurableNaryTree.checksum(sequence, payload))
+                    .put(payload).flip();
+            final long logLength = this.log.position();
+            try {
+                while (record.hasRemaining()) {
+                    this.log.write(record);
+                }
+                patch.applyTo(this.getRootNode());
+            } catch (final IOException | RuntimeException e) {
+                // a partial record would hide the next ones, and a record that was not applied must not be replayed
+                this.cutLog(logLength, e);
+                throw e;
+            }
+            this.lastSequence = sequence;
+            if (++this.recordsSinceCheckpoint >= this.checkpointEvery) {
+                this.checkpoint();
+            }
+            return sequence;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns once the record of a given sequence number is on disk.
+     * The first waiting thread forces the log for all the records appended so far; the others wait for its force,
+     * then the next thread still waiting forces the records appended during the previous force.
+     *
+     * @throws UncheckedIOException if the force of the log fails
+     */
+    private void awaitDurable(final long sequence) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                final long target;
+                synchronized (this.syncLock) {
+                    while (this.forcing && (this.durableSequence < sequence)) {
+                        try {
+                            this.syncLock.wait();
+                        } catch (final InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (this.durableSequence >= sequence) {
+                        return;
+                    }
+                    this.forcing = true;
+                    target = this.lastSequence;
+                }
+                boolean forced = false;
+                try {
+                    this.log.force(false);
+                    forced = true;
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    synchronized (this.syncLock) {
+                        this.forcing = false;
+                        if (forced) {
+                            this.durableSequence = Math.max(this.durableSequence, target);
+                        }
+                        this.syncLock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void write(final TreePatch<E> patch) {
+        this.awaitDurable(this.append(patch));
+    }
+
+    private void cutLog(final long length, final Exception cause) {
+        try {
+            this.log.truncate(length);
+            this.log.position(length);
+        } catch (final IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Returns once the records appended so far are on disk.
+     * The modification methods already wait for their own record, so this only matters for the records
+     * whose force failed.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public void sync() {
+        this.awaitDurable(this.lastSequence);
+    }
+
+    /**
+     * Writes a snapshot of the tree and truncates the log.
+     * The snapshot replaces the previous one atomically, so a crash at any point leaves a recoverable state.
+     *
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    public synchronized void checkpoint() {
+        final Path temporary = this.directory.resolve(DurableNaryTree.SNAPSHOT_TEMPORARY_FILE);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE)) {
+                final OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel));
+                final DataOutputStream output = new DataOutputStream(stream);
+                output.writeInt(DurableNaryTree.SNAPSHOT_MAGIC);
+                output.writeLong(this.lastSequence);
+                TreeCodec.writeSubtree(output, this.getRootNode(), this.serializer);
+                output.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, this.directory.resolve(DurableNaryTree.SNAPSHOT_FILE),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // the rename must be durable before the records it makes useless are dropped
+            DurableNaryTree.forceDirectory(this.directory);
+            // the records of the log are all older than the snapshot from now on, so losing them is harmless
+            this.log.truncate(0);
+            this.log.force(false);
+            this.recordsSinceCheckpoint = 0;
+            synchronized (this.syncLock) {
+                // the snapshot holds every record appended so far
+                this.durableSequence = Math.max(this.durableSequence, this.lastSequence);
+                this.syncLock.notifyAll();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, where the platform allows opening a directory.
+     */
+    private static void forceDirectory(final Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException e) {
+            // directories cannot be opened on Windows, where renames are durable once the move returns
+            if (!System.getProperty("os.name").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last modification logged.
+     *
+     * @return the sequence number of the last modification
+     */
+    public long getLastSequence() {
+        return this.lastSequence;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        final long sequence;
+        synchronized (this) {
+            sequence = this.append(new TreePatch<>(List.of(TreeEdit.insert(
+                    new int[0], this.getRootNode().getChildrenCount(), new NaryTreeNode<>(element)))));
+        }
+        this.awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Adds an element as the last child of the node at the specified path.
+     *
+     * @param parentPath - the child indexes leading from the root to the parent node
+     * @param element    - the element to add
+     *
+     * @return true if this collection changed as a result of the call
+     */
+    public boolean add(final int[] parentPath, final E element) {
+        final long sequence;
+        synchronized (this) {
+            final int index = this.resolve(parentPath).getChildrenCount();
+            sequence = this.append(new TreePatch<>(List.of(TreeEdit.insert(parentPath.clone(), index,
+                                                                            new NaryTreeNode<>(element)))));
+        }
+        this.awaitDurable(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        final long sequence;
+        synchronized (this) {
+            final INaryTreeNode<E> root = this.getRootNode();
+            if (Objects.equals(root.getValue(), element)) {
+                sequence = this.append(new TreePatch<>(List.of(TreeEdit.update(new int[0], null))));
+            } else {
+                final int index = DurableNaryTree.indexOfChild(root, element);
+                if (index < 0) {
+                    return false;
+                }
+                sequence = this.append(new TreePatch<>(List.of(TreeEdit.delete(new int[]{index}))));
+            }
+        }
+        this.awaitDurable(sequence);
+        return true;
+    }
+
+    private static <E> int indexOfChild(final INaryTreeNode<E> node, final Object element) {
+        final List<INaryTreeNode<E>> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            if ((children.get(i).getValue() != null) && children.get(i).getValue().equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the node at the specified path, and its whole subtree.
+     *
+     * @param path - the child indexes leading from the root to the node, which cannot be the root
+     */
+    public void remove(final int[] path) {
+        if (path.length == 0) {
+            throw new IllegalArgumentException("The root cannot be removed");
+        }
+        this.write(new TreePatch<>(List.of(TreeEdit.delete(path.clone()))));
+    }
+
+    /**
+     * Sets the value of the node at the specified path.
+     *
+     * @param path  - the child indexes leading from the root to the node
+     * @param value - the new value
+     */
+    public void setValue(final int[] path, final E value) {
+        this.write(new TreePatch<>(List.of(TreeEdit.update(path.clone(), value))));
+    }
+
+    /**
+     * Logs the whole patch as a single record, then applies it.
+     *
+     * @param patch - the patch to apply
+     */
+    @Override
+    public void apply(final TreePatch<E> patch) {
+        this.write(patch);
+    }
+
+    private INaryTreeNode<E> resolve(final int[] path) {
+        INaryTreeNode<E> node = this.getRootNode();
+        for (final int index : path) {
+            node = node.getChild(index);
+        }
+        return node;
+    }
+
+    /**
+     * Forces the log to disk and closes it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.log.isOpen()) {
+            try {
+                this.sync();
+            } finally {
+                this.log.close();
+            }
+        }
+    }
+
+    /**
+     * A durable tree is bound to its directory: copy it into a NaryTree to serialize it.
+     *
+     * @throws NotSerializableException always
+     */
+    @Override
+    public void writeExternal(final ObjectOutput output) throws IOException {
+        throw new NotSerializableException(DurableNaryTree.class.getName());
+    }
+
+    private static final class Record {
+        private final long sequence;
+        private final byte[] payload;
+
+        private Record(final long sequence, final byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+    }
+}
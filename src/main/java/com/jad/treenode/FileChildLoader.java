@@ -0,0 +1,27 @@
+package com.jad.treenode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads the entries of a directory as the children of its node, sorted by name.
+ * Files are leaves. If a directory cannot be listed, an UncheckedIOException is thrown.
+ */
+public class FileChildLoader implements ChildLoader<Path> {
+    @Override
+    public List<Path> loadChildren(final Path value) {
+        if (!Files.isDirectory(value)) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(value)) {
+            return entries.sorted().collect(Collectors.toList());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,17 @@
 package com.jad.treenode;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * Represents a tree data structure.
@@ -17,6 +28,14 @@ public interface INaryTree<E> extends Iterable<E> {
      */
     E getRoot();
 
+    /**
+     * Returns the node holding the root of the tree.
+     * The traversals, searches, transformations and measures of the tree are implemented on top of it.
+     *
+     * @return the root node of the tree
+     */
+    INaryTreeNode<E> getRootNode();
+
     /**
      * Ensures that this collection contains the specified element.
      *
@@ -158,4 +177,237 @@ public interface INaryTree<E> extends Iterable<E> {
      * @return True if the tree is empty
      */
     boolean isEmpty();
+
+    /**
+     * Returns the levels of the tree, from the root, as a lazy stream.
+     * Each level is the list of the values at the same depth, from left to right.
+     * A level is only computed when the stream requests it, so {@code levels().limit(n)} never touches
+     * the nodes below depth n - 1, and only one level of nodes is held at a time.
+     *
+     * @return the stream of the levels of the tree
+     */
+    default Stream<List<E>> levels() {
+        return TreeTraversals.levels(this.getRootNode());
+    }
+
+    /**
+     * Returns a lazy iterator over the values of the tree by width, down to a maximum depth.
+     * The root is at depth 0; the nodes deeper than the maximum depth are never touched.
+     *
+     * @param maxDepth - the maximum depth of the visited nodes
+     *
+     * @return an iterator over the values by width
+     */
+    default Iterator<E> byWidthIterator(final int maxDepth) {
+        return TreeTraversals.byWidth(this.getRootNode(), maxDepth);
+    }
+
+    /**
+     * Returns a lazy iterator over the values of the tree in prefix order, down to a maximum depth.
+     * The root is at depth 0; the nodes deeper than the maximum depth are never touched.
+     *
+     * @param maxDepth - the maximum depth of the visited nodes
+     *
+     * @return an iterator over the values in prefix order
+     */
+    default Iterator<E> prefixIterator(final int maxDepth) {
+        return TreeTraversals.prefix(this.getRootNode(), maxDepth);
+    }
+
+    /**
+     * Returns an estimate of the heap used by the tree, broken down by nodes, children storage and values.
+     * See {@link MemoryFootprint#estimateValue(Object)} for the estimate of the values.
+     *
+     * @return the estimated memory footprint of the tree
+     */
+    default MemoryFootprint memoryFootprint() {
+        return this.memoryFootprint(MemoryFootprint::estimateValue);
+    }
+
+    /**
+     * Returns an estimate of the heap used by the tree, broken down by nodes, children storage and values.
+     * The tree is walked iteratively; only the nodes held in memory are counted.
+     *
+     * @param valueSizer - the function estimating the size of a value, in bytes
+     *
+     * @return the estimated memory footprint of the tree
+     */
+    default MemoryFootprint memoryFootprint(final ToLongFunction<? super E> valueSizer) {
+        return MemoryFootprint.of(this.getRootNode(), valueSizer);
+    }
+
+    /**
+     * Returns a depth-first search over the tree, which can be switched to another strategy and pruned.
+     * See {@link TreeSearch}.
+     *
+     * @return a search over the tree
+     */
+    default TreeSearch<E> search() {
+        return TreeSearch.of(this);
+    }
+
+    /**
+     * Returns the first node, in prefix order, whose value matches a predicate.
+     * The search stops at the first match.
+     *
+     * @param predicate - the predicate to match
+     *
+     * @return the first matching node, or null if no node matches
+     */
+    default INaryTree<E> findFirst(final Predicate<? super E> predicate) {
+        return this.search().findFirst(predicate);
+    }
+
+    /**
+     * Returns the first nodes, in prefix order, whose value matches a predicate.
+     * The search stops as soon as the limit is reached.
+     *
+     * @param predicate - the predicate to match
+     * @param limit     - the maximum number of nodes returned
+     *
+     * @return the matching nodes, at most limit of them
+     */
+    default List<INaryTree<E>> findAll(final Predicate<? super E> predicate, final int limit) {
+        return this.search().findAll(predicate, limit);
+    }
+
+    /**
+     * Returns the nodes holding the k greatest values, greatest first, using a heap of at most k nodes.
+     *
+     * @param comparator - the comparator of the values
+     * @param k          - the maximum number of nodes returned
+     *
+     * @return the nodes holding the greatest values, at most k of them
+     */
+    default List<INaryTree<E>> topK(final Comparator<? super E> comparator, final int k) {
+        return this.search().topK(comparator, k);
+    }
+
+    /**
+     * Runs an asynchronous callback on every value of the tree and gathers the results in a tree of the same shape.
+     * The callbacks are invoked on the common fork-join pool, at most {@value AsyncTreeVisitor#DEFAULT_MAX_CONCURRENCY}
+     * at a time, without any ordering between parents and children.
+     *
+     * @param visitor - the callback, returning a stage that completes with the result for a value
+     * @param <R>     - the type of the results
+     *
+     * @return a future completed with the tree of results, or with the first failure of a callback
+     */
+    default <R> CompletableFuture<INaryTree<R>> visitAsync(
+            final Function<? super E, ? extends CompletionStage<R>> visitor) {
+        return this.visitAsync(visitor, ForkJoinPool.commonPool(), AsyncTreeVisitor.DEFAULT_MAX_CONCURRENCY, false);
+    }
+
+    /**
+     * Runs an asynchronous callback on every value of the tree and gathers the results in a tree of the same shape.
+     * The tree is walked by width, and only the nodes discovered and not yet started are queued.
+     * For I/O-bound callbacks on a recent JDK, a virtual-thread-per-task executor is a good choice.
+     * The tree must not be modified until the returned future is completed.
+     *
+     * @param visitor        - the callback, returning a stage that completes with the result for a value
+     * @param executor       - the executor invoking the callback
+     * @param maxConcurrency - the maximum number of callbacks whose stage is not completed yet
+     * @param parentFirst    - if true, the callback on a node is only invoked once the stage of its parent is completed
+     * @param <R>            - the type of the results
+     *
+     * @return a future completed with the tree of results, or with the first failure of a callback
+     */
+    default <R> CompletableFuture<INaryTree<R>> visitAsync(
+            final Function<? super E, ? extends CompletionStage<R>> visitor, final Executor executor,
+            final int maxConcurrency, final boolean parentFirst) {
+        return new AsyncTreeVisitor<>(this.getRootNode(), visitor, executor, maxConcurrency,
+                                      parentFirst).start();
+    }
+
+    /**
+     * Returns a tree of the same shape, holding the mapped values.
+     * The tree is walked iteratively, so its depth is only bounded by the heap.
+     *
+     * @param mapper - the function applied to each value
+     * @param <R>    - the type of the mapped values
+     *
+     * @return a tree of the same shape holding the mapped values
+     */
+    default <R> INaryTree<R> map(final Function<? super E, ? extends R> mapper) {
+        return new NaryTree<R>(TreeTransformations.copy(this.getRootNode(), mapper, value -> true));
+    }
+
+    /**
+     * Returns a tree of the same shape, holding the mapped values, mapping distinct subtrees in parallel.
+     * The mapper may be invoked concurrently from several threads of the pool.
+     *
+     * @param mapper - the function applied to each value
+     * @param pool   - the pool running the subtree tasks
+     * @param <R>    - the type of the mapped values
+     *
+     * @return a tree of the same shape holding the mapped values
+     */
+    default <R> INaryTree<R> map(final Function<? super E, ? extends R> mapper, final ForkJoinPool pool) {
+        return new NaryTree<R>(
+                TreeTransformations.copy(this.getRootNode(), mapper, value -> true, pool));
+    }
+
+    /**
+     * Returns a copy of the tree without the subtrees whose root value is rejected by the predicate.
+     * The predicate is not tested on the descendants of a rejected node.
+     * The tree is walked iteratively, so its depth is only bounded by the heap.
+     *
+     * @param predicate - the predicate a value must satisfy for its node to be kept
+     *
+     * @return the pruned copy of the tree, or null if the root value is rejected
+     */
+    default INaryTree<E> filter(final Predicate<? super E> predicate) {
+        final NaryTreeNode<E> root = TreeTransformations.copy(this.getRootNode(), Function.identity(),
+                                                              predicate);
+        return (root == null) ? null : new NaryTree<>(root);
+    }
+
+    /**
+     * Returns a copy of the tree without the subtrees whose root value is rejected by the predicate,
+     * pruning distinct subtrees in parallel.
+     * The predicate may be invoked concurrently from several threads of the pool.
+     *
+     * @param predicate - the predicate a value must satisfy for its node to be kept
+     * @param pool      - the pool running the subtree tasks
+     *
+     * @return the pruned copy of the tree, or null if the root value is rejected
+     */
+    default INaryTree<E> filter(final Predicate<? super E> predicate, final ForkJoinPool pool) {
+        final NaryTreeNode<E> root = TreeTransformations.copy(this.getRootNode(), Function.identity(),
+                                                              predicate, pool);
+        return (root == null) ? null : new NaryTree<>(root);
+    }
+
+    /**
+     * Folds the tree bottom-up.
+     * The folder is applied to each value and to the results of its children, in order; leaves get an empty list.
+     * The tree is walked iteratively, so its depth is only bounded by the heap.
+     * <p>
+     * Example, the height of the tree:
+     * <pre>
+     *      tree.fold((value, heights) -&gt; 1 + heights.stream().mapToInt(h -&gt; h).max().orElse(0))
+     * </pre>
+     *
+     * @param folder - the function combining a value with the results of its children
+     * @param <R>    - the type of the result
+     *
+     * @return the result for the root
+     */
+    default <R> R fold(final BiFunction<? super E, ? super List<R>, ? extends R> folder) {
+        return TreeTransformations.fold(this.getRootNode(), folder);
+    }
+
+    /**
+     * Folds the tree bottom-up, folding distinct subtrees in parallel.
+     * The folder may be invoked concurrently from several threads of the pool.
+     *
+     * @param folder - the function combining a value with the results of its children
+     * @param pool   - the pool running the subtree tasks
+     * @param <R>    - the type of the result
+     *
+     * @return the result for the root
+     */
+    default <R> R fold(final BiFunction<? super E, ? super List<R>, ? extends R> folder, final ForkJoinPool pool) {
+        return TreeTransformations.fold(this.getRootNode(), folder, pool);
+    }
 }
@@ -13,6 +13,16 @@ import java.util.List;
  * @param <E> - the type of the value stored in the node
  */
 public interface INaryTreeNode<E> extends INaryTree<E> {
+    /**
+     * Returns this node, the root of its own subtree.
+     *
+     * @return this node
+     */
+    @Override
+    default INaryTreeNode<E> getRootNode() {
+        return this;
+    }
+
     /**
      * Returns the child at the specified position in the children list of this node.
      *
@@ -31,6 +41,47 @@ public interface INaryTreeNode<E> extends INaryTree<E> {
      */
     boolean add(INaryTreeNode<E> node);
 
+    /**
+     * Inserts the specified node at the specified position in the children list of this node.
+     * Shifts the child currently at that position (if any) and any subsequent children to the right.
+     * The default implementation throws UnsupportedOperationException, for nodes that cannot insert by position.
+     *
+     * @param index - the index at which the node is to be inserted
+     * @param node  - node to be inserted
+     *
+     * @return true if this collection changed as a result of the call
+     * @throws UnsupportedOperationException if this node does not support insertion by position
+     */
+    default boolean add(final int index, final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("add(int, INaryTreeNode)");
+    }
+
+    /**
+     * Removes the child at the specified position in the children list of this node.
+     * Shifts any subsequent children to the left.
+     * The default implementation throws UnsupportedOperationException, for nodes that cannot remove by position.
+     *
+     * @param index - the index of the child to be removed
+     *
+     * @return the child previously at the specified position
+     * @throws UnsupportedOperationException if this node does not support removal by position
+     */
+    default INaryTreeNode<E> removeChild(final int index) {
+        throw new UnsupportedOperationException("removeChild(int)");
+    }
+
+    /**
+     * Returns True if this node supports {@link #add(int, INaryTreeNode)}, {@link #removeChild(int)} and
+     * {@link #setValue(Object)} without moving its children: the edits of a {@link TreePatch}, which addresses nodes
+     * by position, can only be replayed on such nodes.
+     * The default implementation returns false; nodes overriding the positional methods should override it too.
+     *
+     * @return True if this node supports positional edits
+     */
+    default boolean supportsPositionalEdits() {
+        return false;
+    }
+
     /**
      * Returns all children of this node.
      *
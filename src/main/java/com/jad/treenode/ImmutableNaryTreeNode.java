@@ -0,0 +1,87 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * An N-ary tree node that cannot be modified once built.
+ * Immutable nodes are built by a {@link NaryTreeNodeInterner}, which shares structurally identical subtrees:
+ * the same node may then be the child of several parents, and the tree is actually a directed acyclic graph.
+ * All the read operations behave as if each shared subtree was copied at every place it appears.
+ * All the modification operations throw an UnsupportedOperationException.
+ *
+ * @param <E> - the type of elements held in this node
+ */
+public final class ImmutableNaryTreeNode<E> extends AbstractNaryTreeNode<E> {
+    private final List<INaryTreeNode<E>> children;
+
+    @Getter
+    private final E value;
+
+    private final int structuralHash;
+
+    ImmutableNaryTreeNode(final E value, final List<INaryTreeNode<E>> children, final int structuralHash) {
+        this.value = value;
+        this.children = children;
+        this.structuralHash = structuralHash;
+    }
+
+    @Override
+    boolean isStructuralHashKnown() {
+        return true;
+    }
+
+    @Override
+    int knownStructuralHash() {
+        return this.structuralHash;
+    }
+
+    @Override
+    boolean isStructuralHashStableUnder(final INaryTreeNode<E> parent) {
+        return true;
+    }
+
+    @Override
+    public List<INaryTreeNode<E>> getChildren() {
+        return this.children;
+    }
+
+    @Override
+    public void setValue(final E value) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public boolean add(final E element) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public boolean add(final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public boolean add(final int index, final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public INaryTreeNode<E> removeChild(final int index) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        throw new UnsupportedOperationException("Immutable node");
+    }
+
+    @Override
+    public String toString() {
+        return "ImmutableNaryTreeNode{" +
+                "value=" + this.value +
+                ", children=" + this.children +
+                '}';
+    }
+}
@@ -0,0 +1,32 @@
+package com.jad.treenode;
+
+import com.google.gson.Gson;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+final class JsonValueSerializer<E> implements ValueSerializer<E> {
+    private static final Gson GSON = new Gson();
+
+    private final Type type;
+
+    JsonValueSerializer(final Type type) {
+        this.type = type;
+    }
+
+    @Override
+    public void write(final DataOutput output, final E value) throws IOException {
+        final byte[] bytes = JsonValueSerializer.GSON.toJson(value).getBytes(StandardCharsets.UTF_8);
+        TreeCodec.writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    @Override
+    public E read(final DataInput input) throws IOException {
+        final byte[] bytes = TreeCodec.readBytes(input, TreeCodec.readCount(input));
+        return JsonValueSerializer.GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), this.type);
+    }
+}
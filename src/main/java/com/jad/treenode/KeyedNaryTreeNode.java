@@ -0,0 +1,472 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An N-ary tree node whose children are kept sorted by key, for trees used like tries or directory hierarchies.
+ * The key of a node is extracted from its value, and the children of a node have distinct keys.
+ * Children are held in a sorted array: looking a child up, adding and removing a child use a binary search,
+ * or a hash index of the children once their number reaches a threshold.
+ * The hash index requires keys whose {@code equals} and {@code hashCode} are consistent with the comparator.
+ * <p>
+ * All the nodes of a tree share the key extractor, the comparator and the threshold of its root;
+ * only nodes created by {@link #add(Object)} or {@link #newNode(Object)} can be added.
+ * Children cannot be inserted at a given position. Changing the value of a node moves it among its siblings.
+ * This class is not thread-safe.
+ *
+ * @param <K> - the type of the keys
+ * @param <E> - the type of elements held in this node
+ */
+public class KeyedNaryTreeNode<K, E> extends AbstractNaryTreeNode<E> {
+    /**
+     * The default number of children from which a node indexes its children by key in a hash map.
+     */
+    public static final int DEFAULT_HASH_INDEX_THRESHOLD = 64;
+
+    private static final KeyedNaryTreeNode<?, ?>[] NO_CHILDREN = new KeyedNaryTreeNode<?, ?>[0];
+
+    private final Ordering<K, E> ordering;
+
+    @Getter
+    private E value;
+
+    /**
+     * The key of the node, extracted from its value.
+     */
+    @Getter
+    private K key;
+
+    private KeyedNaryTreeNode<K, E> parent;
+    private KeyedNaryTreeNode<K, E>[] children;
+    private int childrenCount;
+    private Map<K, KeyedNaryTreeNode<K, E>> index;
+
+    /**
+     * Instantiates the root of a keyed tree, indexing wide nodes from {@value #DEFAULT_HASH_INDEX_THRESHOLD} children.
+     *
+     * @param value        - the value of the root
+     * @param keyExtractor - the function extracting the key of a value
+     * @param comparator   - the comparator of the keys
+     */
+    public KeyedNaryTreeNode(final E value, final Function<? super E, ? extends K> keyExtractor,
+                             final Comparator<? super K> comparator) {
+        this(value, keyExtractor, comparator, KeyedNaryTreeNode.DEFAULT_HASH_INDEX_THRESHOLD);
+    }
+
+    /**
+     * Instantiates the root of a keyed tree.
+     *
+     * @param value              - the value of the root
+     * @param keyExtractor       - the function extracting the key of a value
+     * @param comparator         - the comparator of the keys
+     * @param hashIndexThreshold - the number of children from which a node indexes its children in a hash map,
+     *                           {@link Integer#MAX_VALUE} to only use binary search
+     */
+    public KeyedNaryTreeNode(final E value, final Function<? super E, ? extends K> keyExtractor,
+                             final Comparator<? super K> comparator, final int hashIndexThreshold) {
+        this(value, new Ordering<>(keyExtractor, comparator, hashIndexThreshold));
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeyedNaryTreeNode(final E value, final Ordering<K, E> ordering) {
+        this.ordering = ordering;
+        this.value = value;
+        this.key = ordering.keyExtractor.apply(value);
+        this.children = (KeyedNaryTreeNode<K, E>[]) KeyedNaryTreeNode.NO_CHILDREN;
+    }
+
+    /**
+     * Instantiates the root of a keyed tree whose values are their own keys.
+     *
+     * @param value      - the value of the root
+     * @param comparator - the comparator of the values
+     * @param <E>        - the type of elements held in the tree
+     *
+     * @return the root of a new keyed tree
+     */
+    public static <E> KeyedNaryTreeNode<E, E> byValue(final E value, final Comparator<? super E> comparator) {
+        return new KeyedNaryTreeNode<>(value, Function.identity(), comparator);
+    }
+
+    /**
+     * Returns a detached node of the tree of this node, which can be added to any node of the tree.
+     *
+     * @param value - the value of the node
+     *
+     * @return a new node sharing the ordering of this node
+     */
+    public KeyedNaryTreeNode<K, E> newNode(final E value) {
+        return new KeyedNaryTreeNode<>(value, this.ordering);
+    }
+
+    /**
+     * Returns the child having a key.
+     *
+     * @param key - the key of the child
+     *
+     * @return the child having the key, or null if there is none
+     */
+    public KeyedNaryTreeNode<K, E> getChildByKey(final K key) {
+        if (this.index != null) {
+            return this.index.get(key);
+        }
+        final int position = this.search(key);
+        return (position >= 0) ? this.children[position] : null;
+    }
+
+    /**
+     * Returns the descendant reached by following a path of keys from this node.
+     * Each level is looked up like {@link #getChildByKey(Object)}, so the walk takes O(depth·log k) comparisons.
+     *
+     * @param path - the keys of the nodes, from a child of this node to the descendant
+     *
+     * @return the descendant, this node if the path is empty, or null if there is no such descendant
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final KeyedNaryTreeNode<K, E> resolve(final K... path) {
+        return this.resolve(Arrays.asList(path));
+    }
+
+    /**
+     * Returns the descendant reached by following a path of keys from this node.
+     * See {@link #resolve(Object[])}.
+     *
+     * @param path - the keys of the nodes, from a child of this node to the descendant
+     *
+     * @return the descendant, this node if the path is empty, or null if there is no such descendant
+     */
+    public KeyedNaryTreeNode<K, E> resolve(final List<? extends K> path) {
+        KeyedNaryTreeNode<K, E> node = this;
+        for (final K key : path) {
+            node = node.getChildByKey(key);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Removes the child having a key, and its subtree.
+     *
+     * @param key - the key of the child
+     *
+     * @return the removed child, or null if there is none
+     */
+    public KeyedNaryTreeNode<K, E> removeKey(final K key) {
+        final int position = this.search(key);
+        return (position >= 0) ? this.removeAt(position) : null;
+    }
+
+    /**
+     * Returns the position of the child having a key, or (-(insertion point) - 1) if there is none.
+     */
+    private int search(final K key) {
+        int low = 0;
+        int high = this.childrenCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = this.ordering.comparator.compare(this.children[middle].key, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertAt(final int position, final KeyedNaryTreeNode<K, E> child) {
+        if (this.childrenCount == this.children.length) {
+            this.children = Arrays.copyOf(this.children,
+                                          Math.max(NaryTreeNode.INITIAL_CHILDREN_CAPACITY,
+                                                   this.childrenCount + (this.childrenCount >> 1)));
+        }
+        System.arraycopy(this.children, position, this.children, position + 1, this.childrenCount - position);
+        this.children[position] = child;
+        this.childrenCount++;
+        child.parent = this;
+        if (this.index != null) {
+            this.index.put(child.key, child);
+        } else if (this.childrenCount >= this.ordering.hashIndexThreshold) {
+            this.indexChildren();
+        }
+    }
+
+    private void indexChildren() {
+        this.index = new HashMap<>();
+        for (int i = 0; i < this.childrenCount; i++) {
+            this.index.put(this.children[i].key, this.children[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeyedNaryTreeNode<K, E> removeAt(final int position) {
+        final KeyedNaryTreeNode<K, E> child = this.children[position];
+        System.arraycopy(this.children, position + 1, this.children, position, this.childrenCount - position - 1);
+        this.children[--this.childrenCount] = null;
+        child.parent = null;
+        if (this.childrenCount == 0) {
+            this.children = (KeyedNaryTreeNode<K, E>[]) KeyedNaryTreeNode.NO_CHILDREN;
+        }
+        if (this.index != null) {
+            if (this.childrenCount < (this.ordering.hashIndexThreshold / 2)) {
+                this.index = null;
+            } else {
+                this.index.remove(child.key);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Sets the value of the node, moving it among its siblings if its key changes.
+     *
+     * @param value - the value of the node
+     *
+     * @throws IllegalArgumentException if a sibling already has the new key
+     */
+    @Override
+    public void setValue(final E value) {
+        final K newKey = this.ordering.keyExtractor.apply(value);
+        final KeyedNaryTreeNode<K, E> owner = this.parent;
+        if ((owner == null) || (this.ordering.comparator.compare(this.key, newKey) == 0)) {
+            this.value = value;
+            this.key = newKey;
+            return;
+        }
+        final int target = owner.search(newKey);
+        if (target >= 0) {
+            throw new IllegalArgumentException("Duplicate key: " + newKey);
+        }
+        owner.removeAt(owner.search(this.key));
+        this.value = value;
+        this.key = newKey;
+        owner.insertAt(-(owner.search(newKey) + 1), this);
+    }
+
+    /**
+     * Adds a child holding an element, unless a child already has its key.
+     *
+     * @param element - the element to add
+     *
+     * @return true if the child was added
+     */
+    @Override
+    public boolean add(final E element) {
+        return this.add(this.newNode(element));
+    }
+
+    /**
+     * Adds a detached node of the tree of this node as a child, at the position of its key,
+     * unless a child already has its key.
+     *
+     * @param node - the node to add, created by {@link #newNode(Object)} or detached from this tree
+     *
+     * @return true if the node was added
+     *
+     * @throws IllegalArgumentException if the node does not belong to the tree of this node, or is attached
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean add(final INaryTreeNode<E> node) {
+        if (!(node instanceof KeyedNaryTreeNode<?, E> keyed) || (keyed.ordering != this.ordering)) {
+            throw new IllegalArgumentException("Not a node of this keyed tree: " + node);
+        }
+        final KeyedNaryTreeNode<K, E> child = (KeyedNaryTreeNode<K, E>) keyed;
+        if (child.parent != null) {
+            throw new IllegalArgumentException("Node already attached: " + node);
+        }
+        for (KeyedNaryTreeNode<K, E> ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == child) {
+                throw new IllegalArgumentException("A node cannot be added below itself");
+            }
+        }
+        final int position = this.search(child.key);
+        if (position >= 0) {
+            return false;
+        }
+        this.insertAt(-(position + 1), child);
+        return true;
+    }
+
+    /**
+     * Adds children holding elements, skipping the elements whose key is already taken by a child
+     * or by a previous element.
+     * The elements are sorted, then merged with the children in a single pass: adding m elements to k children
+     * takes O(m·log m + k), where adding them one by one shifts up to k children each time.
+     *
+     * @param elements - the elements to add
+     *
+     * @return the number of children added
+     */
+    @SuppressWarnings("unchecked")
+    public int addAll(final Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return 0;
+        }
+        final List<KeyedNaryTreeNode<K, E>> nodes = new ArrayList<>(elements.size());
+        for (final E element : elements) {
+            nodes.add(this.newNode(element));
+        }
+        final Comparator<? super K> comparator = this.ordering.comparator;
+        // the sort is stable: among elements having the same key, the first one is added
+        nodes.sort((left, right) -> comparator.compare(left.key, right.key));
+        final KeyedNaryTreeNode<K, E>[] merged = (KeyedNaryTreeNode<K, E>[]) new KeyedNaryTreeNode<?, ?>[
+                Math.max(NaryTreeNode.INITIAL_CHILDREN_CAPACITY, this.childrenCount + nodes.size())];
+        int count = 0;
+        int next = 0;
+        int added = 0;
+        for (final KeyedNaryTreeNode<K, E> node : nodes) {
+            while ((next < this.childrenCount) && (comparator.compare(this.children[next].key, node.key) < 0)) {
+                merged[count++] = this.children[next++];
+            }
+            if (((next < this.childrenCount) && (comparator.compare(this.children[next].key, node.key) == 0))
+                    || ((count > 0) && (comparator.compare(merged[count - 1].key, node.key) == 0))) {
+                continue;
+            }
+            node.parent = this;
+            merged[count++] = node;
+            added++;
+        }
+        if (added == 0) {
+            return 0;
+        }
+        while (next < this.childrenCount) {
+            merged[count++] = this.children[next++];
+        }
+        this.children = merged;
+        this.childrenCount = count;
+        if ((this.index != null) || (count >= this.ordering.hashIndexThreshold)) {
+            this.indexChildren();
+        }
+        return added;
+    }
+
+    /**
+     * Children are kept sorted by key: use {@link #add(INaryTreeNode)}.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(final int index, final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("Children are kept sorted");
+    }
+
+    @Override
+    public INaryTreeNode<E> removeChild(final int index) {
+        if ((index < 0) || (index >= this.childrenCount)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.childrenCount);
+        }
+        return this.removeAt(index);
+    }
+
+    /**
+     * Removes the child having the key of an element, if it holds an element equal to it.
+     *
+     * @param element - the element to remove
+     *
+     * @return true if a child was removed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(final Object element) {
+        final K elementKey;
+        try {
+            elementKey = this.ordering.keyExtractor.apply((E) element);
+        } catch (final ClassCastException e) {
+            return false;
+        }
+        final int position = this.search(elementKey);
+        if ((position < 0) || (this.children[position].value == null)
+                || !this.children[position].value.equals(element)) {
+            return false;
+        }
+        this.removeAt(position);
+        return true;
+    }
+
+    @Override
+    public INaryTreeNode<E> getChild(final int index) {
+        if ((index < 0) || (index >= this.childrenCount)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.childrenCount);
+        }
+        return this.children[index];
+    }
+
+    @Override
+    public List<INaryTreeNode<E>> getChildren() {
+        if (this.childrenCount == 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(this.children).subList(0, this.childrenCount));
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return this.childrenCount == 0;
+    }
+
+    @Override
+    public int getChildrenCount() {
+        return this.childrenCount;
+    }
+
+    @Override
+    long childStorageBytes() {
+        long bytes = (this.children.length == 0) ? 0
+                : MemoryFootprint.arrayBytes(this.children.length, MemoryFootprint.REFERENCE_BYTES);
+        if (this.index != null) {
+            // the map, its table, loaded at most at three quarters, and one 32-byte entry per child
+            int tableLength = 16;
+            while ((tableLength * 3L) < (this.childrenCount * 4L)) {
+                tableLength <<= 1;
+            }
+            bytes += MemoryFootprint.shallowSize(HashMap.class)
+                    + MemoryFootprint.arrayBytes(tableLength, MemoryFootprint.REFERENCE_BYTES)
+                    + (32L * this.childrenCount);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedNaryTreeNode{" +
+                "key=" + this.key +
+                ", value=" + this.value +
+                ", children=" + this.getChildren() +
+                '}';
+    }
+
+    /**
+     * The key extractor, comparator and hash index threshold shared by all the nodes of a tree.
+     */
+    private static final class Ordering<K, E> {
+        private final Function<? super E, ? extends K> keyExtractor;
+        private final Comparator<? super K> comparator;
+        private final int hashIndexThreshold;
+
+        private Ordering(final Function<? super E, ? extends K> keyExtractor, final Comparator<? super K> comparator,
+                         final int hashIndexThreshold) {
+            if (hashIndexThreshold < 1) {
+                throw new IllegalArgumentException("hashIndexThreshold must be positive: " + hashIndexThreshold);
+            }
+            this.keyExtractor = keyExtractor;
+            this.comparator = comparator;
+            this.hashIndexThreshold = hashIndexThreshold;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An N-ary tree node whose children are loaded on first access, by a {@link ChildLoader}.
+ * Lazy trees mirror hierarchical stores too large to be held in memory: all the nodes of a tree share
+ * a bounded cache, which unloads the children of the least recently accessed nodes when too many nodes
+ * are loaded. Unloaded children are loaded again on demand, as new nodes holding the same values.
+ * The eviction that follows a load spares the loaded node and its parent, so the bound is only exceeded when
+ * their children alone outnumber it. The other ancestors of the loaded node may be unloaded: a walk keeps reading
+ * the nodes it holds, and walking again from the root loads new nodes holding the same values.
+ * <p>
+ * Lazy trees are read-only: all the modification operations throw an UnsupportedOperationException.
+ * The read operations that walk the whole tree load the whole tree, evicting nodes on the way if needed.
+ * Loading and eviction are synchronized on the shared cache, so a lazy tree can be read from several threads.
+ *
+ * @param <E> - the type of elements held in this node
+ */
+public class LazyNaryTreeNode<E> extends AbstractNaryTreeNode<E> {
+    private final Cache<E> cache;
+
+    /**
+     * The node whose children include this node, or null for the root.
+     */
+    private final LazyNaryTreeNode<E> parent;
+
+    @Getter
+    private final E value;
+
+    private List<INaryTreeNode<E>> children;
+
+    /**
+     * Neighbours in the least recently used list of the nodes whose children are loaded.
+     * The list is intrusive, since the structural hash code of a node would load its whole subtree.
+     */
+    private LazyNaryTreeNode<E> previouslyUsed;
+    private LazyNaryTreeNode<E> nextUsed;
+
+    /**
+     * Instantiates the root of a lazy tree that never unloads its nodes.
+     *
+     * @param value  - the value of the root
+     * @param loader - the loader of the children
+     */
+    public LazyNaryTreeNode(final E value, final ChildLoader<E> loader) {
+        this(value, loader, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Instantiates the root of a lazy tree that keeps at most a given number of nodes loaded.
+     *
+     * @param value          - the value of the root
+     * @param loader         - the loader of the children
+     * @param maxLoadedNodes - the maximum number of loaded nodes, the root excluded
+     */
+    public LazyNaryTreeNode(final E value, final ChildLoader<E> loader, final int maxLoadedNodes) {
+        this(value, new Cache<>(loader, maxLoadedNodes), null);
+    }
+
+    private LazyNaryTreeNode(final E value, final Cache<E> cache, final LazyNaryTreeNode<E> parent) {
+        this.value = value;
+        this.cache = cache;
+        this.parent = parent;
+    }
+
+    @Override
+    public List<INaryTreeNode<E>> getChildren() {
+        return this.cache.load(this);
+    }
+
+    /**
+     * Returns True if the children of this node are currently loaded.
+     *
+     * @return True if the children of this node are currently loaded
+     */
+    public boolean isLoaded() {
+        synchronized (this.cache) {
+            return this.children != null;
+        }
+    }
+
+    /**
+     * Returns the number of nodes currently loaded in the tree of this node, the root excluded.
+     *
+     * @return the number of loaded nodes
+     */
+    public int getLoadedNodeCount() {
+        synchronized (this.cache) {
+            return this.cache.loadedNodes;
+        }
+    }
+
+    /**
+     * Returns the number of times the children of a node of the tree of this node have been unloaded.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        synchronized (this.cache) {
+            return this.cache.evictions;
+        }
+    }
+
+    @Override
+    List<INaryTreeNode<E>> residentChildren() {
+        synchronized (this.cache) {
+            return (this.children == null) ? List.of() : this.children;
+        }
+    }
+
+    @Override
+    long childStorageBytes() {
+        synchronized (this.cache) {
+            if ((this.children == null) || this.children.isEmpty()) {
+                return 0;
+            }
+            return MemoryFootprint.unmodifiableViewBytes()
+                    + MemoryFootprint.listBytes(this.children.size(), this.children.size());
+        }
+    }
+
+    @Override
+    public void setValue(final E value) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public boolean add(final E element) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public boolean add(final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public boolean add(final int index, final INaryTreeNode<E> node) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public INaryTreeNode<E> removeChild(final int index) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        throw new UnsupportedOperationException("Lazy node");
+    }
+
+    @Override
+    public String toString() {
+        return "LazyNaryTreeNode{" +
+                "value=" + this.value +
+                ", loaded=" + this.isLoaded() +
+                '}';
+    }
+
+    /**
+     * The loader and the least recently used list of the loaded nodes, shared by all the nodes of a tree.
+     */
+    private static final class Cache<E> {
+        private final ChildLoader<E> loader;
+        private final int maxLoadedNodes;
+        private LazyNaryTreeNode<E> leastRecentlyUsed;
+        private LazyNaryTreeNode<E> mostRecentlyUsed;
+        private int loadedNodes;
+        private long evictions;
+
+        private Cache(final ChildLoader<E> loader, final int maxLoadedNodes) {
+            if (maxLoadedNodes < 1) {
+                throw new IllegalArgumentException("maxLoadedNodes must be positive: " + maxLoadedNodes);
+            }
+            this.loader = loader;
+            this.maxLoadedNodes = maxLoadedNodes;
+        }
+
+        private synchronized List<INaryTreeNode<E>> load(final LazyNaryTreeNode<E> node) {
+            if (node.children != null) {
+                this.unlink(node);
+                this.append(node);
+                return node.children;
+            }
+            final List<E> values = this.loader.loadChildren(node.value);
+            final List<INaryTreeNode<E>> children = new ArrayList<>(values.size());
+            for (final E childValue : values) {
+                children.add(new LazyNaryTreeNode<>(childValue, this, node));
+            }
+            final List<INaryTreeNode<E>> loaded = Collections.unmodifiableList(children);
+            node.children = loaded;
+            this.loadedNodes += children.size();
+            this.append(node);
+            this.evict(node);
+            return loaded;
+        }
+
+        private void append(final LazyNaryTreeNode<E> node) {
+            node.previouslyUsed = this.mostRecentlyUsed;
+            node.nextUsed = null;
+            if (this.mostRecentlyUsed == null) {
+                this.leastRecentlyUsed = node;
+            } else {
+                this.mostRecentlyUsed.nextUsed = node;
+            }
+            this.mostRecentlyUsed = node;
+        }
+
+        private void unlink(final LazyNaryTreeNode<E> node) {
+            if (node.previouslyUsed == null) {
+                this.leastRecentlyUsed = node.nextUsed;
+            } else {
+                node.previouslyUsed.nextUsed = node.nextUsed;
+            }
+            if (node.nextUsed == null) {
+                this.mostRecentlyUsed = node.previouslyUsed;
+            } else {
+                node.nextUsed.previouslyUsed = node.previouslyUsed;
+            }
+            node.previouslyUsed = null;
+            node.nextUsed = null;
+        }
+
+        /**
+         * Unloads the least recently used nodes until the bound is met, sparing the node just loaded and its parent,
+         * whose children the caller is about to walk.
+         */
+        private void evict(final LazyNaryTreeNode<E> spared) {
+            LazyNaryTreeNode<E> eldest = this.leastRecentlyUsed;
+            while ((this.loadedNodes > this.maxLoadedNodes) && (eldest != null)) {
+                if ((eldest == spared) || (eldest == spared.parent)) {
+                    eldest = eldest.nextUsed;
+                } else {
+                    this.unload(eldest, spared);
+                    eldest = this.leastRecentlyUsed;
+                }
+            }
+        }
+
+        /**
+         * Unloads the children of a node, and the children of its loaded descendants, which become unreachable,
+         * except the spared node and its parent: they stay loaded, detached from the root, until evicted in turn.
+         */
+        private void unload(final LazyNaryTreeNode<E> root, final LazyNaryTreeNode<E> spared) {
+            final Deque<LazyNaryTreeNode<E>> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                final LazyNaryTreeNode<E> node = stack.pop();
+                if ((node.children == null) || (node == spared) || (node == spared.parent)) {
+                    continue;
+                }
+                for (final INaryTreeNode<E> child : node.children) {
+                    stack.push((LazyNaryTreeNode<E>) child);
+                }
+                this.loadedNodes -= node.children.size();
+                node.children = null;
+                this.evictions++;
+                this.unlink(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * An estimate of the heap used by a tree, broken down by nodes, children storage and values.
+ * Sizes are estimated from the fields of the classes, for a 64-bit HotSpot JVM with compressed references:
+ * 12-byte object headers, 16-byte array headers, 4-byte references and 8-byte alignment.
+ * The children storage of a node counts the lists and arrays holding its children, not the children themselves.
+ * A value shared by several nodes is counted once, and so is a node shared by several parents,
+ * as in the trees built by a {@link NaryTreeNodeInterner}: the estimate is the heap actually used, not the heap
+ * an unshared copy would use.
+ * Only the nodes held in memory are counted: estimating a lazy tree does not load it.
+ */
+@Getter
+public final class MemoryFootprint {
+    static final int OBJECT_HEADER_BYTES = 12;
+    static final int ARRAY_HEADER_BYTES = 16;
+    static final int REFERENCE_BYTES = 4;
+    static final int OBJECT_ALIGNMENT = 8;
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(final Class<?> type) {
+            return MemoryFootprint.computeShallowSize(type);
+        }
+    };
+
+    /**
+     * The number of distinct nodes.
+     */
+    private final long nodeCount;
+
+    /**
+     * The estimated number of bytes of the node objects themselves.
+     */
+    private final long nodeBytes;
+
+    /**
+     * The estimated number of bytes of the lists and arrays holding the children of the nodes.
+     */
+    private final long childStorageBytes;
+
+    /**
+     * The number of distinct non-null values.
+     */
+    private final long valueCount;
+
+    /**
+     * The estimated number of bytes of the distinct values.
+     */
+    private final long valueBytes;
+
+    private MemoryFootprint(final long nodeCount, final long nodeBytes, final long childStorageBytes,
+                            final long valueCount, final long valueBytes) {
+        this.nodeCount = nodeCount;
+        this.nodeBytes = nodeBytes;
+        this.childStorageBytes = childStorageBytes;
+        this.valueCount = valueCount;
+        this.valueBytes = valueBytes;
+    }
+
+    /**
+     * Estimates the heap used by a subtree, walked iteratively, each distinct node being visited once.
+     */
+    static <E> MemoryFootprint of(final INaryTreeNode<E> root, final ToLongFunction<? super E> valueSizer) {
+        final Map<Object, Boolean> values = new IdentityHashMap<>();
+        final Set<INaryTreeNode<E>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<INaryTreeNode<E>> stack = new ArrayDeque<>();
+        stack.push(root);
+        visited.add(root);
+        long nodeCount = 0;
+        long nodeBytes = 0;
+        long childStorageBytes = 0;
+        long valueBytes = 0;
+        while (!stack.isEmpty()) {
+            final INaryTreeNode<E> node = stack.pop();
+            nodeCount++;
+            nodeBytes += MemoryFootprint.shallowSize(node.getClass());
+            final List<INaryTreeNode<E>> children;
+            if (node instanceof AbstractNaryTreeNode<E> known) {
+                children = known.residentChildren();
+                childStorageBytes += known.childStorageBytes();
+            } else {
+                children = node.getChildren();
+                childStorageBytes += MemoryFootprint.listBytes(children.size(), children.size());
+            }
+            final E value = node.getValue();
+            if ((value != null) && (values.put(value, Boolean.TRUE) == null)) {
+                valueBytes += valueSizer.applyAsLong(value);
+            }
+            for (final INaryTreeNode<E> child : children) {
+                if (visited.add(child)) {
+                    stack.push(child);
+                }
+            }
+        }
+        return new MemoryFootprint(nodeCount, nodeBytes, childStorageBytes, values.size(), valueBytes);
+    }
+
+    /**
+     * Estimates the size of a value: the characters of strings and the elements of arrays of primitives are counted,
+     * the other objects referenced by the value are not.
+     *
+     * @param value - the value
+     *
+     * @return the estimated size of the value, in bytes
+     */
+    public static long estimateValue(final Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            boolean latin1 = true;
+            for (int i = 0; latin1 && (i < string.length()); i++) {
+                latin1 = string.charAt(i) < 256;
+            }
+            return MemoryFootprint.shallowSize(String.class)
+                    + MemoryFootprint.arrayBytes(string.length(), latin1 ? 1 : 2);
+        }
+        final Class<?> type = value.getClass();
+        if (type.isArray()) {
+            final Class<?> component = type.getComponentType();
+            final int elementBytes = component.isPrimitive() ? MemoryFootprint.primitiveBytes(component)
+                    : MemoryFootprint.REFERENCE_BYTES;
+            return MemoryFootprint.arrayBytes(Array.getLength(value), elementBytes);
+        }
+        return MemoryFootprint.shallowSize(type);
+    }
+
+    /**
+     * Returns the estimated size of an instance of a class, without the objects it references.
+     */
+    static long shallowSize(final Class<?> type) {
+        return MemoryFootprint.SHALLOW_SIZES.get(type);
+    }
+
+    private static long computeShallowSize(final Class<?> type) {
+        long size = MemoryFootprint.OBJECT_HEADER_BYTES;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += field.getType().isPrimitive() ? MemoryFootprint.primitiveBytes(field.getType())
+                            : MemoryFootprint.REFERENCE_BYTES;
+                }
+            }
+        }
+        return MemoryFootprint.align(size);
+    }
+
+    private static int primitiveBytes(final Class<?> type) {
+        if ((type == long.class) || (type == double.class)) {
+            return 8;
+        }
+        if ((type == int.class) || (type == float.class)) {
+            return 4;
+        }
+        if ((type == short.class) || (type == char.class)) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the estimated size of an array.
+     */
+    static long arrayBytes(final int length, final int elementBytes) {
+        return MemoryFootprint.align(MemoryFootprint.ARRAY_HEADER_BYTES + ((long) length * elementBytes));
+    }
+
+    /**
+     * Returns the estimated size of an ArrayList and of its array of references.
+     */
+    static long listBytes(final int size, final int capacity) {
+        if (size == 0) {
+            return 0;
+        }
+        return MemoryFootprint.shallowSize(ArrayList.class)
+                + MemoryFootprint.arrayBytes(capacity, MemoryFootprint.REFERENCE_BYTES);
+    }
+
+    /**
+     * Returns the capacity of an ArrayList created with an initial capacity and grown to a size by appending,
+     * the list growing by half of its capacity when it is full.
+     */
+    static int grownCapacity(final int initialCapacity, final int size) {
+        int capacity = initialCapacity;
+        while (capacity < size) {
+            capacity += Math.max(capacity >> 1, 1);
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the estimated size of an unmodifiable view of a list, without the list.
+     */
+    static long unmodifiableViewBytes() {
+        return MemoryFootprint.shallowSize(Collections.unmodifiableList(new ArrayList<>()).getClass());
+    }
+
+    private static long align(final long size) {
+        return ((size + MemoryFootprint.OBJECT_ALIGNMENT - 1) / MemoryFootprint.OBJECT_ALIGNMENT)
+                * MemoryFootprint.OBJECT_ALIGNMENT;
+    }
+
+    /**
+     * Returns the estimated total number of bytes used by the tree.
+     *
+     * @return the estimated total number of bytes
+     */
+    public long getTotalBytes() {
+        return this.nodeBytes + this.childStorageBytes + this.valueBytes;
+    }
+
+    /**
+     * Returns the estimated number of bytes per node, values excluded.
+     *
+     * @return the estimated number of bytes per node, values excluded
+     */
+    public double getStructureBytesPerNode() {
+        return (this.nodeCount == 0) ? 0 : (double) (this.nodeBytes + this.childStorageBytes) / this.nodeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryFootprint{" +
+                "nodeCount=" + this.nodeCount +
+                ", nodeBytes=" + this.nodeBytes +
+                ", childStorageBytes=" + this.childStorageBytes +
+                ", valueCount=" + this.valueCount +
+                ", valueBytes=" + this.valueBytes +
+                ", totalBytes=" + this.getTotalBytes() +
+                '}';
+    }
+}
@@ -1,8 +1,13 @@
 package com.jad.treenode;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * NaryTree is a tree data structure where each node can have multiple children.
@@ -13,17 +18,23 @@ import java.util.List;
  * convert it to JSON format, and traverse the tree in different orders (prefix, postfix, and by width).
  * It also provides methods to get the height of the tree,
  * the number of leaves, and the size of the tree.
+ * <p>
+ * Trees are serializable: they are written in a flat encoding, without recursion, so deep trees can be serialized.
+ * Values are encoded by the serializers of {@link ValueSerializers}, or with Java serialization when their class
+ * has no registered serializer.
  *
  * @param <E> - the type of elements in this tree
  */
-public class NaryTree<E> implements INaryTree<E> {
+public class NaryTree<E> implements INaryTree<E>, Externalizable {
+    private static final long serialVersionUID = 1L;
+
     private final INaryTreeNode<E> root;
 
     /**
      * Construct by default for the NaryTree.
      */
     public NaryTree() {
-        this(null);
+        this((E) null);
     }
 
     /**
@@ -35,6 +46,46 @@ public class NaryTree<E> implements INaryTree<E> {
         this.root = new NaryTreeNode<>(root);
     }
 
+    /**
+     * Construct a NaryTree around an existing root node.
+     *
+     * @param root - the root node
+     */
+    NaryTree(final INaryTreeNode<E> root) {
+        this.root = root;
+    }
+
+    @Override
+    public INaryTreeNode<E> getRootNode() {
+        return this.root;
+    }
+
+    /**
+     * Replays a patch computed by {@link TreeDiff#diff(INaryTree, INaryTree)} onto this tree.
+     * After the call, this tree has the same shape and values as the target tree of the diff,
+     * provided it had the same shape and values as the source tree before the call.
+     * The patch is checked against the tree before any edit is applied, so a patch that does not fit leaves the tree
+     * untouched. Only nodes supporting positional edits, such as the {@link NaryTreeNode}s, can be patched.
+     *
+     * @param patch - the patch to apply
+     * @throws IndexOutOfBoundsException     if an edit addresses a node or a position the tree does not have
+     * @throws UnsupportedOperationException if an edited node does not support positional edits
+     */
+    public void apply(final TreePatch<E> patch) {
+        patch.checkApplicableTo(this.root);
+        patch.applyTo(this.root);
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput output) throws IOException {
+        TreeCodec.writeExternal(output, this.root);
+    }
+
+    @Override
+    public void readExternal(final ObjectInput input) throws IOException {
+        TreeCodec.readExternal(input, this.root);
+    }
+
     @Override
     public E getRoot() {
         return this.root.getValue();
@@ -47,7 +98,7 @@ public class NaryTree<E> implements INaryTree<E> {
 
     @Override
     public boolean remove(final Object element) {
-        if (this.root.getValue().equals(element)) {
+        if (Objects.equals(this.root.getValue(), element)) {
             this.root.setValue(null);
             return true;
         }
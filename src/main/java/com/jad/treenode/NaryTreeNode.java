@@ -1,15 +1,15 @@
 package com.jad.treenode;
 
-import com.google.gson.Gson;
 import lombok.Getter;
-import lombok.Setter;
 
-import java.text.MessageFormat;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * A class that represents a N-ary tree node.
@@ -17,16 +17,40 @@ import java.util.stream.Collectors;
  * add new nodes, remove nodes, and perform various tree operations.
  * It also provides methods to generate a string representation of the tree,
  * convert the tree to JSON format, and traverse the tree in different orders (prefix, postfix, and by width).
+ * <p>
+ * Two nodes are equal when they hold equal values and equal children in the same order.
+ * The structural hash of each subtree is cached and only recomputed along the path from a modified node
+ * to the root, so comparing unchanged trees or detecting a change is cheap.
+ * Modifying a value in place (rather than through {@link #setValue(Object)}) is not detected.
+ * <b>As hashCode follows the structure, a node found in a HashSet or a HashMap is lost there once its subtree
+ * changes</b>; use identity-based collections for nodes that are modified (see {@link AbstractNaryTreeNode}).
+ * The cache costs each node a reference to its parent, an int and a boolean, which take an estimated node
+ * from 24 to 32 bytes (see {@link MemoryFootprint}); the int alone would round up to the same size.
+ * <p>
+ * Leaves share an empty list of children; the storage of the children is allocated by the first addition,
+ * and released when the last child is removed.
+ * <p>
+ * Nodes are serializable, with their subtree, like {@link NaryTree}; the parent of a deserialized node is unknown.
  *
  * @param <E> - the type of elements held in this node
  */
-public class NaryTreeNode<E> implements INaryTreeNode<E> {
-    private final List<INaryTreeNode<E>> children;
+public class NaryTreeNode<E> extends AbstractNaryTreeNode<E> implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The initial capacity of the storage of the children.
+     */
+    static final int INITIAL_CHILDREN_CAPACITY = 4;
+
+    private List<INaryTreeNode<E>> children;
 
-    @Setter
     @Getter
     private E value;
 
+    private NaryTreeNode<E> parent;
+    private int structuralHash;
+    private boolean structuralHashValid;
+
     /**
      * Instantiates a new NaryTreeNode.
      */
@@ -41,188 +65,222 @@ public class NaryTreeNode<E> implements INaryTreeNode<E> {
      */
     public NaryTreeNode(final E element) {
         this.value = element;
-        this.children = new LinkedList<>();
+        this.children = Collections.emptyList();
     }
 
-    private static <E> String toPrettyText(final INaryTreeNode<E> node, final int depth) {
-        return MessageFormat.format("{0}{1}{2}\n{3}",
-                                    NaryTreeNodeUtils.VALUE_PRETTY_DEPTH.repeat(depth - 1),
-                                    NaryTreeNodeUtils.VALUE_PRETTY_CHILDREN_PREFIX,
-                                    node.getValue().toString(),
-                                    node.getChildren().stream().map(
-                                                    child -> NaryTreeNode.toPrettyText(child, depth + 1))
-                                            .collect(Collectors.joining("")));
+    /**
+     * Returns the estimated size of the storage of a given number of children, assuming it only grew.
+     * The storage of decoded nodes is sized for their children instead, so it is usually overestimated for them.
+     */
+    static long childStorageBytes(final int count) {
+        return MemoryFootprint.listBytes(count,
+                                         MemoryFootprint.grownCapacity(NaryTreeNode.INITIAL_CHILDREN_CAPACITY, count));
     }
 
     @Override
-    public INaryTreeNode<E> getChild(final int index) {
-        return this.children.get(index);
+    long childStorageBytes() {
+        return NaryTreeNode.childStorageBytes(this.children.size());
     }
 
-    @Override
-    public boolean add(INaryTreeNode<E> node) {
-        if (this.children.contains(node)) {
-            return false;
+    private List<INaryTreeNode<E>> allocatedChildren() {
+        if (this.children.isEmpty()) {
+            this.children = new ArrayList<>(NaryTreeNode.INITIAL_CHILDREN_CAPACITY);
         }
-        return this.children.add(node);
+        return this.children;
     }
 
-    @Override
-    public List<INaryTreeNode<E>> getChildren() {
-        return Collections.unmodifiableList(this.children);
+    private void releaseChildrenIfEmpty() {
+        if (this.children.isEmpty()) {
+            this.children = Collections.emptyList();
+        }
     }
 
     @Override
-    public boolean isLeaf() {
-        return this.children.isEmpty();
+    boolean isStructuralHashKnown() {
+        return this.structuralHashValid;
     }
 
     @Override
-    public int getChildrenCount() {
-        return this.children.size();
+    int knownStructuralHash() {
+        return this.structuralHash;
     }
 
+    /**
+     * A node reports its changes to the node it is attached to, and only to it.
+     */
     @Override
-    public String toString() {
-        return "NaryTreeNode{" +
-                "value=" + this.value.toString() +
-                ", children=" + this.children.toString() +
-                '}';
+    boolean isStructuralHashStableUnder(final INaryTreeNode<E> parent) {
+        return this.structuralHashValid && (this.parent == parent);
     }
 
     @Override
-    public E getRoot() {
-        return this.value;
+    void cacheStructuralHash(final int hash) {
+        this.structuralHash = hash;
+        this.structuralHashValid = true;
     }
 
-    @Override
-    public boolean add(final E element) {
-        return this.add(new NaryTreeNode<>(element));
+    /**
+     * Marks the cached hashes of this node and of its ancestors as stale.
+     * Stops at the first stale ancestor: the ancestors of a node whose hash is stale are stale too.
+     */
+    private void invalidateStructuralHash() {
+        for (NaryTreeNode<E> node = this; (node != null) && node.structuralHashValid; node = node.parent) {
+            node.structuralHashValid = false;
+        }
     }
 
-    @Override
-    public boolean remove(final Object element) {
-        for (INaryTreeNode<E> child : this.children) {
-            if ((child.getValue() != null) && child.getValue().equals(element)) {
-                return this.children.remove(child);
+    private void attach(final INaryTreeNode<E> node) {
+        if (node instanceof NaryTreeNode<E> child) {
+            if ((child.parent != null) && (child.parent != this)) {
+                child.parent.invalidateStructuralHash();
             }
+            child.parent = this;
         }
-        return false;
+        this.invalidateStructuralHash();
     }
 
-    @Override
-    public String generateText() {
-        if (this.isLeaf()) {
-            return NaryTreeNodeUtils.VALUE_PREFIX + (this.value == null ? NaryTreeNodeUtils.VALUE_NULL :
-                    this.value.toString()) +
-                    NaryTreeNodeUtils.VALUE_SUFFIX;
+    private void detach(final INaryTreeNode<E> node) {
+        if ((node instanceof NaryTreeNode<E> child) && (child.parent == this)) {
+            child.parent = null;
         }
-        return NaryTreeNodeUtils.VALUE_PREFIX + (this.value == null ? NaryTreeNodeUtils.VALUE_NULL :
-                this.value.toString()) +
-                NaryTreeNodeUtils.VALUE_SUFFIX + NaryTreeNodeUtils.VALUE_SEPARATOR
-                + this.children.stream().map(INaryTree::generateText).collect(Collectors.joining(
-                NaryTreeNodeUtils.CHILDREN_SEPARATOR,
-                NaryTreeNodeUtils.CHILDREN_PREFIX, NaryTreeNodeUtils.CHILDREN_SUFFIX));
+        this.invalidateStructuralHash();
     }
 
-    @Override
-    public boolean contains(final Object element) {
-        if (this.value == null) return element == null;
-        if (this.value.equals(element)) return true;
-        for (final INaryTree<E> child : this.children) {
-            if (child.contains(element)) {
+    /**
+     * Appends a child without looking for it among the children, unlike {@link #add(INaryTreeNode)}.
+     * Only for the nodes built by the copies and decoders, which are new and attached nowhere else.
+     *
+     * @param child - a new node, without parent
+     */
+    void appendFresh(final NaryTreeNode<E> child) {
+        this.allocatedChildren().add(child);
+        child.parent = this;
+        this.invalidateStructuralHash();
+    }
+
+    /**
+     * Allocates the storage of the children of a leaf for a known number of children, so that appending them
+     * does not grow it. Does nothing for a node which already has children.
+     *
+     * @param capacity - the number of children about to be appended
+     */
+    void allocateChildren(final int capacity) {
+        if (this.children.isEmpty()) {
+            this.children = new ArrayList<>(Math.max(capacity, NaryTreeNode.INITIAL_CHILDREN_CAPACITY));
+        }
+    }
+
+    private boolean hasChild(final INaryTreeNode<E> node) {
+        for (final INaryTreeNode<E> child : this.children) {
+            if (child == node) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Sets the value of the node.
+     *
+     * @param value - the value of the node
+     */
     @Override
-    public int getHeight() {
-        if (this.children.isEmpty()) return 1;
-        return 1 + this.children.stream().mapToInt(INaryTree::getHeight).max().getAsInt();
+    public void setValue(final E value) {
+        this.value = value;
+        this.invalidateStructuralHash();
     }
 
     @Override
-    public int size() {
-        return this.isLeaf() ? 1 : 1 + this.children.stream().mapToInt(INaryTree::size).sum();
+    public void writeExternal(final ObjectOutput output) throws IOException {
+        TreeCodec.writeExternal(output, this);
     }
 
     @Override
-    public int getNumberOfLeaves() {
-        return this.isLeaf() ? 1 : this.children.stream().mapToInt(INaryTree::getNumberOfLeaves).sum();
+    public void readExternal(final ObjectInput input) throws IOException {
+        TreeCodec.readExternal(input, this);
     }
 
     @Override
-    public String toJson() {
-        if (this.isLeaf()) {
-            return "{\"" + NaryTreeNodeUtils.JSON_VALUE_KEY + "\":"
-                    + new Gson().toJson(this.value) + "}";
-        }
-        return "{\"" + NaryTreeNodeUtils.JSON_VALUE_KEY + "\":"
-                + new Gson().toJson(this.value) + ",\"" + NaryTreeNodeUtils.JSON_CHILDREN_KEY + "\":["
-                + this.children.stream().map(INaryTree::toJson).collect(Collectors.joining(",")) + "]}";
+    public INaryTreeNode<E> getChild(final int index) {
+        return this.children.get(index);
     }
 
     @Override
-    public String toPrettyText() {
-        return MessageFormat.format("{0}\n{1}",
-                                    this.value.toString(),
-                                    this.children.stream().map(node -> NaryTreeNode.toPrettyText(node, 1))
-                                            .collect(Collectors.joining("")));
+    public boolean add(INaryTreeNode<E> node) {
+        if (this.hasChild(node)) {
+            return false;
+        }
+        this.allocatedChildren().add(node);
+        this.attach(node);
+        return true;
     }
 
     @Override
-    public List<E> toPostfixList() {
-        List<E> list = new LinkedList<>();
-        for (INaryTree<E> child : this.children) {
-            list.addAll(child.toPostfixList());
+    public boolean add(final int index, final INaryTreeNode<E> node) {
+        if (this.hasChild(node)) {
+            return false;
         }
-        list.add(this.value);
-        return list;
+        this.allocatedChildren().add(index, node);
+        this.attach(node);
+        return true;
     }
 
     @Override
-    public List<E> toPrefixList() {
-        List<E> list = new LinkedList<>();
-        list.add(this.value);
-        for (INaryTree<E> child : this.children) {
-            list.addAll(child.toPrefixList());
-        }
-        return list;
+    public INaryTreeNode<E> removeChild(final int index) {
+        final INaryTreeNode<E> child = this.children.remove(index);
+        this.releaseChildrenIfEmpty();
+        this.detach(child);
+        return child;
     }
 
     @Override
-    public List<E> toByWidthList() {
-        List<E> list = new LinkedList<>();
-        LinkedList<INaryTreeNode<E>> queue = new LinkedList<>();
-        queue.add(this);
-        while (!queue.isEmpty()) {
-            INaryTreeNode<E> node = queue.poll();
-            list.add(node.getValue());
-            queue.addAll(node.getChildren());
-        }
-        return list;
+    public boolean supportsPositionalEdits() {
+        return true;
     }
 
     @Override
-    public final INaryTree<E> getNodeFromElement(final E element) {
-        if (this.value == element) return this;
-        INaryTree<E> result = null;
-        for (INaryTree<E> child : this.children) {
-            INaryTree<E> response = child.getNodeFromElement(element);
-            result = (response == null) ? result : response;
+    public List<INaryTreeNode<E>> getChildren() {
+        if (this.children.isEmpty()) {
+            return Collections.emptyList();
         }
-        return result;
+        return Collections.unmodifiableList(this.children);
     }
 
     @Override
-    public boolean isEmpty() {
-        return false;
+    public boolean isLeaf() {
+        return this.children.isEmpty();
     }
 
     @Override
-    public Iterator<E> iterator() {
-        return this.toByWidthList().iterator();
+    public int getChildrenCount() {
+        return this.children.size();
+    }
+
+    @Override
+    public String toString() {
+        return "NaryTreeNode{" +
+                "value=" + this.value.toString() +
+                ", children=" + this.children.toString() +
+                '}';
+    }
+
+    @Override
+    public boolean add(final E element) {
+        return this.add(new NaryTreeNode<>(element));
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        final Iterator<INaryTreeNode<E>> iterator = this.children.iterator();
+        while (iterator.hasNext()) {
+            final INaryTreeNode<E> child = iterator.next();
+            if ((child.getValue() != null) && child.getValue().equals(element)) {
+                iterator.remove();
+                this.releaseChildrenIfEmpty();
+                this.detach(child);
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,190 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A hash-consing factory of immutable tree nodes.
+ * The interner keeps a single instance of every distinct subtree it has built: interning a tree whose subtrees
+ * repeat stores each distinct subtree once, and interned subtrees can be compared by identity.
+ * The interner keeps strong references to all the nodes it has built, until {@link #clear()} is called.
+ * This class is not thread-safe.
+ *
+ * @param <E> - the type of elements held in the nodes
+ */
+public final class NaryTreeNodeInterner<E> {
+    private final Map<Key<E>, ImmutableNaryTreeNode<E>> nodes = new HashMap<>();
+
+    /**
+     * The number of nodes submitted to this interner, whether they were already known or not.
+     */
+    @Getter
+    private long internedNodeCount;
+
+    /**
+     * The estimated number of bytes saved by sharing: what a separate NaryTreeNode copy of every shared node would take.
+     */
+    @Getter
+    private long estimatedSavedBytes;
+
+    /**
+     * Returns the interned copy of a tree.
+     * The tree is walked iteratively, so its depth is only bounded by the heap.
+     *
+     * @param tree - the tree to intern
+     *
+     * @return the root of the interned copy
+     */
+    public ImmutableNaryTreeNode<E> intern(final INaryTree<E> tree) {
+        final INaryTreeNode<E> root = tree.getRootNode();
+        final Map<INaryTreeNode<E>, ImmutableNaryTreeNode<E>> done = new IdentityHashMap<>();
+        final Deque<Frame<E>> stack = new ArrayDeque<>();
+        stack.push(new Frame<>(root));
+        ImmutableNaryTreeNode<E> interned = null;
+        while (!stack.isEmpty()) {
+            final Frame<E> frame = stack.peek();
+            if (frame.children.hasNext()) {
+                final INaryTreeNode<E> child = frame.children.next();
+                final ImmutableNaryTreeNode<E> known = done.get(child);
+                if (known == null) {
+                    stack.push(new Frame<>(child));
+                } else {
+                    frame.internedChildren.add(known);
+                }
+                continue;
+            }
+            stack.pop();
+            interned = this.node(frame.node.getValue(), frame.internedChildren);
+            done.put(frame.node, interned);
+            if (!stack.isEmpty()) {
+                stack.peek().internedChildren.add(interned);
+            }
+        }
+        return interned;
+    }
+
+    /**
+     * Returns the interned node holding a value and some interned children.
+     *
+     * @param value    - the value of the node
+     * @param children - the children of the node, which must have been built by this interner
+     *
+     * @return the interned node
+     */
+    public ImmutableNaryTreeNode<E> node(final E value, final List<ImmutableNaryTreeNode<E>> children) {
+        int hash = Objects.hashCode(value);
+        for (final ImmutableNaryTreeNode<E> child : children) {
+            final Key<E> childKey = new Key<>(child.getValue(), child.getChildren(), child.knownStructuralHash());
+            if (this.nodes.get(childKey) != child) {
+                throw new IllegalArgumentException("Child not built by this interner: " + child);
+            }
+            hash = 31 * hash + child.knownStructuralHash();
+        }
+        hash = 31 * hash + children.size();
+        final List<INaryTreeNode<E>> nodeChildren = List.copyOf(children);
+        final Key<E> key = new Key<>(value, nodeChildren, hash);
+        this.internedNodeCount++;
+        ImmutableNaryTreeNode<E> node = this.nodes.get(key);
+        if (node == null) {
+            node = new ImmutableNaryTreeNode<>(value, nodeChildren, hash);
+            this.nodes.put(key, node);
+        } else {
+            this.estimatedSavedBytes += MemoryFootprint.shallowSize(NaryTreeNode.class)
+                    + NaryTreeNode.childStorageBytes(children.size());
+        }
+        return node;
+    }
+
+    /**
+     * Returns the interned leaf holding a value.
+     *
+     * @param value - the value of the leaf
+     *
+     * @return the interned leaf
+     */
+    public ImmutableNaryTreeNode<E> leaf(final E value) {
+        return this.node(value, List.of());
+    }
+
+    /**
+     * Returns the number of distinct nodes built by this interner.
+     *
+     * @return the number of distinct nodes
+     */
+    public int getUniqueNodeCount() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns the number of submitted nodes that were replaced by an already interned node.
+     *
+     * @return the number of shared nodes
+     */
+    public long getSharedNodeCount() {
+        return this.internedNodeCount - this.nodes.size();
+    }
+
+    /**
+     * Forgets all the nodes built so far and resets the statistics.
+     * The nodes already returned remain valid, but are no longer shared with the nodes built afterwards.
+     */
+    public void clear() {
+        this.nodes.clear();
+        this.internedNodeCount = 0;
+        this.estimatedSavedBytes = 0;
+    }
+
+    /**
+     * Identifies a node by its value and the identities of its children, which are interned already.
+     */
+    private static final class Key<E> {
+        private final E value;
+        private final List<INaryTreeNode<E>> children;
+        private final int hash;
+
+        private Key(final E value, final List<INaryTreeNode<E>> children, final int hash) {
+            this.value = value;
+            this.children = children;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key<?> key) || (this.hash != key.hash)
+                    || (this.children.size() != key.children.size()) || !Objects.equals(this.value, key.value)) {
+                return false;
+            }
+            for (int i = 0; i < this.children.size(); i++) {
+                if (this.children.get(i) != key.children.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static final class Frame<E> {
+        private final INaryTreeNode<E> node;
+        private final Iterator<INaryTreeNode<E>> children;
+        private final List<ImmutableNaryTreeNode<E>> internedChildren = new ArrayList<>();
+
+        private Frame(final INaryTreeNode<E> node) {
+            this.node = node;
+            this.children = node.getChildren().iterator();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jad.treenode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes values of any class with the serializers of {@link ValueSerializers}, for Java serialization.
+ * Each value is preceded by a tag: null, a value written with Java serialization, or the index of its serializer.
+ * The first value of a class also names its class, so that the reader finds the same serializer.
+ * An instance holds the classes met so far, and must be used for a single tree.
+ *
+ * @param <E> - the type of the serialized values
+ */
+final class RegistryValueSerializer<E> implements ValueSerializer<E> {
+    private static final int NULL_TAG = 0;
+    private static final int OBJECT_TAG = 1;
+    private static final int NEW_CLASS_TAG = 2;
+    private static final int FIRST_CLASS_TAG = 3;
+
+    private final Map<Class<?>, Integer> writtenClasses = new HashMap<>();
+    private final List<ValueSerializer<?>> readSerializers = new ArrayList<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(final DataOutput output, final E value) throws IOException {
+        if (value == null) {
+            TreeCodec.writeVarInt(output, RegistryValueSerializer.NULL_TAG);
+            return;
+        }
+        final Class<?> type = value.getClass();
+        final ValueSerializer<Object> serializer = (ValueSerializer<Object>) ValueSerializers.find(type.getName());
+        if (serializer == null) {
+            if (!(output instanceof ObjectOutput objectOutput)) {
+                throw new NotSerializableException(type.getName());
+            }
+            TreeCodec.writeVarInt(output, RegistryValueSerializer.OBJECT_TAG);
+            objectOutput.writeObject(value);
+            return;
+        }
+        final Integer index = this.writtenClasses.get(type);
+        if (index == null) {
+            TreeCodec.writeVarInt(output, RegistryValueSerializer.NEW_CLASS_TAG);
+            output.writeUTF(type.getName());
+            this.writtenClasses.put(type, this.writtenClasses.size());
+        } else {
+            TreeCodec.writeVarInt(output, RegistryValueSerializer.FIRST_CLASS_TAG + index);
+        }
+        serializer.write(output, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E read(final DataInput input) throws IOException {
+        final int tag = TreeCodec.readVarInt(input);
+        if (tag == RegistryValueSerializer.NULL_TAG) {
+            return null;
+        }
+        if (tag == RegistryValueSerializer.OBJECT_TAG) {
+            if (!(input instanceof ObjectInput objectInput)) {
+                throw new InvalidObjectException("Java serialized value outside of an object stream");
+            }
+            try {
+                return (E) objectInput.readObject();
+            } catch (final ClassNotFoundException e) {
+                throw new InvalidObjectException(e.toString());
+            }
+        }
+        final ValueSerializer<?> serializer;
+        if (tag == RegistryValueSerializer.NEW_CLASS_TAG) {
+            final String typeName = input.readUTF();
+            serializer = ValueSerializers.find(typeName);
+            if (serializer == null) {
+                throw new InvalidObjectException("No value serializer registered for " + typeName);
+            }
+            this.readSerializers.add(serializer);
+        } else {
+            final int index = tag - RegistryValueSerializer.FIRST_CLASS_TAG;
+            if ((index < 0) || (index >= this.readSerializers.size())) {
+                throw new InvalidObjectException("Unknown value class index " + index);
+            }
+            serializer = this.readSerializers.get(index);
+        }
+        return (E) serializer.read(input);
+    }
+}
@@ -0,0 +1,194 @@
+package com.jad.treenode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Flat binary encoding of a subtree: values in prefix order, each followed by its number of children.
+ * Encoding and decoding are iterative, so the depth of the tree is only bounded by the heap.
+ */
+final class TreeCodec {
+    /**
+     * The version of the encoding of the trees written with Java serialization.
+     */
+    private static final int EXTERNAL_FORMAT_VERSION = 1;
+
+    /**
+     * The largest number of elements allocated for a decoded count before the elements are read:
+     * longer lists and arrays grow as their elements arrive, so that a corrupted count cannot exhaust the heap.
+     */
+    static final int MAX_PREALLOCATED_ELEMENTS = 1 << 10;
+
+    /**
+     * The largest buffer allocated for a decoded length before the bytes are read.
+     */
+    private static final int MAX_PREALLOCATED_BYTES = 1 << 16;
+
+    private TreeCodec() {
+    }
+
+    /**
+     * Writes a subtree for Java serialization, its values being encoded by the serializers of
+     * {@link ValueSerializers}.
+     */
+    static <E> void writeExternal(final ObjectOutput output, final INaryTreeNode<E> root) throws IOException {
+        output.writeByte(TreeCodec.EXTERNAL_FORMAT_VERSION);
+        TreeCodec.writeSubtree(output, root, new RegistryValueSerializer<>());
+    }
+
+    /**
+     * Reads a subtree written by {@link #writeExternal(ObjectOutput, INaryTreeNode)} into an existing node.
+     */
+    static <E> void readExternal(final ObjectInput input, final INaryTreeNode<E> root) throws IOException {
+        final int version = input.readUnsignedByte();
+        if (version != TreeCodec.EXTERNAL_FORMAT_VERSION) {
+            throw new InvalidObjectException("Unsupported tree format version: " + version);
+        }
+        TreeCodec.readSubtree(input, new RegistryValueSerializer<>(), root);
+    }
+
+    static <E> void writeSubtree(final DataOutput output, final INaryTreeNode<E> root,
+                                 final ValueSerializer<E> serializer) throws IOException {
+        final Deque<INaryTreeNode<E>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final INaryTreeNode<E> node = stack.pop();
+            serializer.write(output, node.getValue());
+            final int count = node.getChildrenCount();
+            TreeCodec.writeVarInt(output, count);
+            for (int i = count - 1; i >= 0; i--) {
+                stack.push(node.getChild(i));
+            }
+        }
+    }
+
+    static <E> NaryTreeNode<E> readSubtree(final DataInput input,
+                                           final ValueSerializer<E> serializer) throws IOException {
+        final NaryTreeNode<E> root = new NaryTreeNode<>();
+        TreeCodec.readSubtree(input, serializer, root);
+        return root;
+    }
+
+    /**
+     * Reads a subtree into an existing node: its value is replaced and the decoded children are appended.
+     * The decoded nodes are new, so they are appended without looking for duplicates among their siblings.
+     */
+    static <E> void readSubtree(final DataInput input, final ValueSerializer<E> serializer,
+                                final INaryTreeNode<E> root) throws IOException {
+        final Deque<INaryTreeNode<E>> parents = new ArrayDeque<>();
+        final Deque<int[]> remaining = new ArrayDeque<>();
+        root.setValue(serializer.read(input));
+        int count = TreeCodec.readCount(input);
+        if (count > 0) {
+            if (root instanceof NaryTreeNode<E> node) {
+                node.allocateChildren(TreeCodec.initialCapacity(count));
+            }
+            parents.push(root);
+            remaining.push(new int[]{count});
+        }
+        while (!parents.isEmpty()) {
+            final int[] left = remaining.peek();
+            if (left[0] == 0) {
+                parents.pop();
+                remaining.pop();
+                continue;
+            }
+            left[0]--;
+            final NaryTreeNode<E> node = new NaryTreeNode<>(serializer.read(input));
+            if (parents.peek() instanceof NaryTreeNode<E> parent) {
+                parent.appendFresh(node);
+            } else {
+                parents.peek().add(node);
+            }
+            count = TreeCodec.readCount(input);
+            if (count > 0) {
+                node.allocateChildren(TreeCodec.initialCapacity(count));
+                parents.push(node);
+                remaining.push(new int[]{count});
+            }
+        }
+    }
+
+    static void writeVarInt(final DataOutput output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    static int readVarInt(final DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Reads a variable-length integer which must not be negative: a count, a length or an index.
+     *
+     * @throws IOException if the integer is malformed or negative
+     */
+    static int readCount(final DataInput input) throws IOException {
+        final int count = TreeCodec.readVarInt(input);
+        if (count < 0) {
+            throw new IOException("Negative count: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the capacity to allocate for a decoded number of elements, before reading them.
+     */
+    static int initialCapacity(final int count) {
+        return Math.min(count, TreeCodec.MAX_PREALLOCATED_ELEMENTS);
+    }
+
+    /**
+     * Reads a given number of bytes, allocating them as they arrive.
+     *
+     * @throws IOException if the input ends before the bytes
+     */
+    static byte[] readBytes(final DataInput input, final int length) throws IOException {
+        byte[] bytes = new byte[Math.min(length, TreeCodec.MAX_PREALLOCATED_BYTES)];
+        input.readFully(bytes);
+        while (bytes.length < length) {
+            final int read = bytes.length;
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            input.readFully(bytes, read, bytes.length - read);
+        }
+        return bytes;
+    }
+
+    static void writePath(final DataOutput output, final int[] path) throws IOException {
+        TreeCodec.writeVarInt(output, path.length);
+        for (final int index : path) {
+            TreeCodec.writeVarInt(output, index);
+        }
+    }
+
+    static int[] readPath(final DataInput input) throws IOException {
+        final int length = TreeCodec.readCount(input);
+        int[] path = new int[TreeCodec.initialCapacity(length)];
+        for (int i = 0; i < length; i++) {
+            if (i == path.length) {
+                path = Arrays.copyOf(path, (int) Math.min(length, 2L * i));
+            }
+            path[i] = TreeCodec.readCount(input);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,328 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes edit scripts between two trees.
+ * The diff fingerprints every subtree of both trees with its structural hash, so that identical subtrees are
+ * recognized in constant time and never walked twice: diffing two mostly similar trees is linear in their size.
+ * The hashes cached by the nodes are reused, so unchanged subtrees are not even hashed again.
+ * Matching is done top-down, sibling by sibling: first identical subtrees, then nodes holding equal values,
+ * then remaining nodes by position. Unmatched subtrees deleted from one place and inserted identically in
+ * another are turned into moves.
+ */
+public final class TreeDiff {
+    private TreeDiff() {
+    }
+
+    /**
+     * Computes the edits turning the source tree into the target tree.
+     * Neither tree is modified.
+     *
+     * @param source - the tree to start from
+     * @param target - the tree to reach
+     * @param <E>    - the type of elements in the trees
+     *
+     * @return the patch turning the source tree into the target tree
+     */
+    public static <E> TreePatch<E> diff(final INaryTree<E> source, final INaryTree<E> target) {
+        final INaryTreeNode<E> targetRoot = target.getRootNode();
+        final Map<INaryTreeNode<E>, Integer> fingerprints = new IdentityHashMap<>();
+        final Mirror<E> sourceRoot = Mirror.of(source.getRootNode(), fingerprints);
+        final Map<INaryTreeNode<E>, Mirror<E>> matches = TreeDiff.match(sourceRoot, targetRoot, fingerprints);
+        return new TreePatch<>(TreeDiff.generate(sourceRoot, targetRoot, matches));
+    }
+
+    /**
+     * Nodes that cache their hash reuse it, other subtrees are hashed once, children before parents.
+     */
+    static <E> int fingerprint(final INaryTreeNode<E> root, final Map<INaryTreeNode<E>, Integer> fingerprints) {
+        final Integer known = fingerprints.get(root);
+        if (known != null) {
+            return known;
+        }
+        final Deque<INaryTreeNode<E>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final INaryTreeNode<E> node = stack.peek();
+            if (node instanceof AbstractNaryTreeNode<E>) {
+                stack.pop();
+                fingerprints.put(node, AbstractNaryTreeNode.structuralHash(node));
+                continue;
+            }
+            boolean ready = true;
+            for (final INaryTreeNode<E> child : node.getChildren()) {
+                if (!fingerprints.containsKey(child)) {
+                    stack.push(child);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                stack.pop();
+                int hash = Objects.hashCode(node.getValue());
+                for (final INaryTreeNode<E> child : node.getChildren()) {
+                    hash = 31 * hash + fingerprints.get(child);
+                }
+                fingerprints.put(node, 31 * hash + node.getChildrenCount());
+            }
+        }
+        return fingerprints.get(root);
+    }
+
+    private static <E> Map<INaryTreeNode<E>, Mirror<E>> match(final Mirror<E> sourceRoot,
+                                                              final INaryTreeNode<E> targetRoot,
+                                                              final Map<INaryTreeNode<E>, Integer> fingerprints) {
+        final Map<INaryTreeNode<E>, Mirror<E>> matches = new IdentityHashMap<>();
+        final List<INaryTreeNode<E>> unmatchedTargets = new ArrayList<>();
+        final Map<Integer, Deque<Mirror<E>>> unmatchedSources = new HashMap<>();
+        final Deque<INaryTreeNode<E>> queue = new ArrayDeque<>();
+        TreeDiff.bind(targetRoot, sourceRoot, matches, fingerprints);
+        if (!sourceRoot.identical) {
+            queue.add(targetRoot);
+        }
+        while (!queue.isEmpty()) {
+            final INaryTreeNode<E> target = queue.poll();
+            final List<INaryTreeNode<E>> targetChildren = target.getChildren();
+            final List<Mirror<E>> sourceChildren = new ArrayList<>(matches.get(target).children);
+            final List<INaryTreeNode<E>> pending = new ArrayList<>(targetChildren.size());
+
+            final Map<Integer, Deque<Mirror<E>>> byFingerprint = new HashMap<>();
+            for (final Mirror<E> child : sourceChildren) {
+                byFingerprint.computeIfAbsent(child.fingerprint, k -> new ArrayDeque<>()).add(child);
+            }
+            for (final INaryTreeNode<E> child : targetChildren) {
+                final Mirror<E> candidate = TreeDiff.takeIdentical(
+                        byFingerprint.get(TreeDiff.fingerprint(child, fingerprints)), child, fingerprints);
+                if (candidate == null) {
+                    pending.add(child);
+                } else {
+                    TreeDiff.bind(child, candidate, matches, fingerprints);
+                }
+            }
+
+            final Map<Object, Deque<Mirror<E>>> byValue = new HashMap<>();
+            for (final Mirror<E> child : sourceChildren) {
+                if (!child.matched) {
+                    byValue.computeIfAbsent(child.value, k -> new ArrayDeque<>()).add(child);
+                }
+            }
+            final Iterator<INaryTreeNode<E>> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                final INaryTreeNode<E> child = iterator.next();
+                final Deque<Mirror<E>> candidates = byValue.get(child.getValue());
+                if ((candidates != null) && !candidates.isEmpty()) {
+                    TreeDiff.bind(child, candidates.poll(), matches, fingerprints);
+                    TreeDiff.enqueueIfChanged(queue, child, matches);
+                    iterator.remove();
+                }
+            }
+
+            final Iterator<Mirror<E>> leftovers = sourceChildren.stream().filter(child -> !child.matched).iterator();
+            for (final INaryTreeNode<E> child : pending) {
+                if (leftovers.hasNext()) {
+                    TreeDiff.bind(child, leftovers.next(), matches, fingerprints);
+                    TreeDiff.enqueueIfChanged(queue, child, matches);
+                } else {
+                    unmatchedTargets.add(child);
+                }
+            }
+            leftovers.forEachRemaining(child -> unmatchedSources
+                    .computeIfAbsent(child.fingerprint, k -> new ArrayDeque<>()).add(child));
+        }
+
+        for (final INaryTreeNode<E> target : unmatchedTargets) {
+            final Mirror<E> candidate = TreeDiff.takeIdentical(
+                    unmatchedSources.get(TreeDiff.fingerprint(target, fingerprints)), target, fingerprints);
+            if (candidate != null) {
+                TreeDiff.bind(target, candidate, matches, fingerprints);
+            }
+        }
+        return matches;
+    }
+
+    private static <E> void bind(final INaryTreeNode<E> target, final Mirror<E> source,
+                                 final Map<INaryTreeNode<E>, Mirror<E>> matches,
+                                 final Map<INaryTreeNode<E>, Integer> fingerprints) {
+        source.matched = true;
+        source.identical = (source.fingerprint == TreeDiff.fingerprint(target, fingerprints))
+                && TreeDiff.sameStructure(source.origin, target, fingerprints);
+        matches.put(target, source);
+    }
+
+    private static <E> void enqueueIfChanged(final Deque<INaryTreeNode<E>> queue, final INaryTreeNode<E> target,
+                                             final Map<INaryTreeNode<E>, Mirror<E>> matches) {
+        if (!matches.get(target).identical) {
+            queue.add(target);
+        }
+    }
+
+    private static <E> Mirror<E> takeIdentical(final Deque<Mirror<E>> candidates, final INaryTreeNode<E> target,
+                                               final Map<INaryTreeNode<E>, Integer> fingerprints) {
+        if (candidates == null) {
+            return null;
+        }
+        final Iterator<Mirror<E>> iterator = candidates.iterator();
+        while (iterator.hasNext()) {
+            final Mirror<E> candidate = iterator.next();
+            if (candidate.matched) {
+                iterator.remove();
+            } else if (TreeDiff.sameStructure(candidate.origin, target, fingerprints)) {
+                iterator.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares two subtrees node by node, to rule out fingerprint collisions.
+     */
+    private static <E> boolean sameStructure(final INaryTreeNode<E> left, final INaryTreeNode<E> right,
+                                             final Map<INaryTreeNode<E>, Integer> fingerprints) {
+        final Deque<INaryTreeNode<E>> stack = new ArrayDeque<>();
+        stack.push(left);
+        stack.push(right);
+        while (!stack.isEmpty()) {
+            final INaryTreeNode<E> b = stack.pop();
+            final INaryTreeNode<E> a = stack.pop();
+            if (a == b) {
+                continue;
+            }
+            if ((TreeDiff.fingerprint(a, fingerprints) != TreeDiff.fingerprint(b, fingerprints))
+                    || !Objects.equals(a.getValue(), b.getValue())
+                    || (a.getChildrenCount() != b.getChildrenCount())) {
+                return false;
+            }
+            for (int i = 0; i < a.getChildrenCount(); i++) {
+                stack.push(a.getChild(i));
+                stack.push(b.getChild(i));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Walks the target tree top-down and emits the edits, replaying them on the source mirror
+     * so that every emitted path is valid at the time its edit is applied.
+     */
+    private static <E> List<TreeEdit<E>> generate(final Mirror<E> sourceRoot, final INaryTreeNode<E> targetRoot,
+                                                  final Map<INaryTreeNode<E>, Mirror<E>> matches) {
+        final List<TreeEdit<E>> edits = new ArrayList<>();
+        final Deque<INaryTreeNode<E>> queue = new ArrayDeque<>();
+        if (!sourceRoot.identical) {
+            queue.add(targetRoot);
+        }
+        while (!queue.isEmpty()) {
+            final INaryTreeNode<E> target = queue.poll();
+            final Mirror<E> mirror = matches.get(target);
+            if (!Objects.equals(mirror.value, target.getValue())) {
+                edits.add(TreeEdit.update(mirror.path(), target.getValue()));
+                mirror.value = target.getValue();
+            }
+            for (int i = mirror.children.size() - 1; i >= 0; i--) {
+                final Mirror<E> child = mirror.children.get(i);
+                if (!child.matched) {
+                    edits.add(TreeEdit.delete(child.path()));
+                    mirror.children.remove(i);
+                }
+            }
+            final List<INaryTreeNode<E>> targetChildren = target.getChildren();
+            final Set<Mirror<E>> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final INaryTreeNode<E> child : targetChildren) {
+                final Mirror<E> match = matches.get(child);
+                if (match != null) {
+                    expected.add(match);
+                }
+            }
+            int cursor = 0;
+            for (final INaryTreeNode<E> child : targetChildren) {
+                while ((cursor < mirror.children.size()) && !expected.contains(mirror.children.get(cursor))) {
+                    // matched elsewhere in the target tree: moved out when its new parent is reached
+                    cursor++;
+                }
+                final Mirror<E> match = matches.get(child);
+                if (match == null) {
+                    edits.add(TreeEdit.insert(mirror.path(), cursor, child));
+                    mirror.children.add(cursor, new Mirror<>(child.getValue(), child, 0, mirror));
+                } else {
+                    if ((cursor >= mirror.children.size()) || (mirror.children.get(cursor) != match)) {
+                        final int[] from = match.path();
+                        match.parent.children.remove(match);
+                        edits.add(TreeEdit.move(from, mirror.path(), cursor));
+                        mirror.children.add(cursor, match);
+                        match.parent = mirror;
+                    }
+                    if (!match.identical) {
+                        queue.add(child);
+                    }
+                }
+                cursor++;
+            }
+        }
+        return edits;
+    }
+
+    /**
+     * A mutable copy of the shape of the source tree, kept in sync with the edits while they are generated.
+     */
+    private static final class Mirror<E> {
+        private final INaryTreeNode<E> origin;
+        private final int fingerprint;
+        private final List<Mirror<E>> children = new ArrayList<>();
+        private E value;
+        private Mirror<E> parent;
+        private boolean matched;
+        private boolean identical;
+
+        private Mirror(final E value, final INaryTreeNode<E> origin, final int fingerprint, final Mirror<E> parent) {
+            this.value = value;
+            this.origin = origin;
+            this.fingerprint = fingerprint;
+            this.parent = parent;
+            this.matched = true;
+            this.identical = true;
+        }
+
+        private static <E> Mirror<E> of(final INaryTreeNode<E> root,
+                                        final Map<INaryTreeNode<E>, Integer> fingerprints) {
+            final Mirror<E> mirror = new Mirror<>(root.getValue(), root, TreeDiff.fingerprint(root, fingerprints), null);
+            final Deque<Mirror<E>> stack = new ArrayDeque<>();
+            stack.push(mirror);
+            while (!stack.isEmpty()) {
+                final Mirror<E> current = stack.pop();
+                current.matched = false;
+                current.identical = false;
+                for (final INaryTreeNode<E> child : current.origin.getChildren()) {
+                    final Mirror<E> childMirror = new Mirror<>(child.getValue(), child,
+                                                               TreeDiff.fingerprint(child, fingerprints),
+                                                               current);
+                    current.children.add(childMirror);
+                    stack.push(childMirror);
+                }
+            }
+            return mirror;
+        }
+
+        private int[] path() {
+            int depth = 0;
+            for (Mirror<E> node = this; node.parent != null; node = node.parent) {
+                depth++;
+            }
+            final int[] path = new int[depth];
+            for (Mirror<E> node = this; node.parent != null; node = node.parent) {
+                path[--depth] = node.parent.children.indexOf(node);
+            }
+            return path;
+        }
+    }
+}
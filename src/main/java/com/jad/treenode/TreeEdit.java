@@ -0,0 +1,101 @@
+package com.jad.treenode;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A single operation of a {@link TreePatch}.
+ * Nodes are addressed by paths: the successive child indexes leading from the root to the node.
+ * The root is addressed by the empty path.
+ * Paths are resolved against the tree as left by the previous edits of the patch.
+ *
+ * @param <E> - the type of elements in the patched tree
+ */
+@Getter
+public final class TreeEdit<E> {
+    /**
+     * The kinds of edit.
+     */
+    public enum Kind {
+        /**
+         * Inserts a subtree under the node at {@code path}, at position {@code index}.
+         */
+        INSERT,
+        /**
+         * Removes the node at {@code path} and its whole subtree.
+         */
+        DELETE,
+        /**
+         * Detaches the node at {@code path}, then inserts it under the node at {@code targetPath}, at position {@code index}.
+         */
+        MOVE,
+        /**
+         * Replaces the value of the node at {@code path} by {@code value}.
+         */
+        UPDATE
+    }
+
+    private final Kind kind;
+    private final int[] path;
+    private final int[] targetPath;
+    private final int index;
+    private final E value;
+    private final INaryTreeNode<E> subtree;
+
+    private TreeEdit(final Kind kind, final int[] path, final int[] targetPath, final int index, final E value,
+                     final INaryTreeNode<E> subtree) {
+        this.kind = kind;
+        this.path = path;
+        this.targetPath = targetPath;
+        this.index = index;
+        this.value = value;
+        this.subtree = subtree;
+    }
+
+    static <E> TreeEdit<E> insert(final int[] parentPath, final int index, final INaryTreeNode<E> subtree) {
+        return new TreeEdit<>(Kind.INSERT, parentPath, null, index, null, subtree);
+    }
+
+    static <E> TreeEdit<E> delete(final int[] path) {
+        return new TreeEdit<>(Kind.DELETE, path, null, -1, null, null);
+    }
+
+    static <E> TreeEdit<E> move(final int[] path, final int[] targetPath, final int index) {
+        return new TreeEdit<>(Kind.MOVE, path, targetPath, index, null, null);
+    }
+
+    static <E> TreeEdit<E> update(final int[] path, final E value) {
+        return new TreeEdit<>(Kind.UPDATE, path, null, -1, value, null);
+    }
+
+    /**
+     * Returns the path of the node the edit applies to.
+     * For an insertion, this is the path of the parent of the inserted subtree.
+     *
+     * @return a copy of the path
+     */
+    public int[] getPath() {
+        return this.path.clone();
+    }
+
+    /**
+     * Returns the path of the new parent of a moved node, or null if the edit is not a move.
+     *
+     * @return a copy of the target path, or null
+     */
+    public int[] getTargetPath() {
+        return (this.targetPath == null) ? null : this.targetPath.clone();
+    }
+
+    @Override
+    public String toString() {
+        return switch (this.kind) {
+            case INSERT -> "INSERT " + Arrays.toString(this.path) + "@" + this.index + " " + this.subtree.generateText();
+            case DELETE -> "DELETE " + Arrays.toString(this.path);
+            case MOVE -> "MOVE " + Arrays.toString(this.path) + " -> " + Arrays.toString(this.targetPath) + "@"
+                    + this.index;
+            case UPDATE -> "UPDATE " + Arrays.toString(this.path) + " = " + this.value;
+        };
+    }
+}
@@ -0,0 +1,275 @@
+package com.jad.treenode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An edit script turning one tree into another, as computed by {@link TreeDiff}.
+ * A patch can be replayed with {@link NaryTree#apply(TreePatch)} and shipped in a compact binary form
+ * whose size depends on the number and size of the edits, not on the size of the trees.
+ *
+ * @param <E> - the type of elements in the patched tree
+ */
+public final class TreePatch<E> {
+    private static final int FORMAT_VERSION = 1;
+
+    private final List<TreeEdit<E>> edits;
+
+    TreePatch(final List<TreeEdit<E>> edits) {
+        this.edits = edits;
+    }
+
+    /**
+     * Decodes a patch encoded by {@link #toBytes(ValueSerializer)}.
+     *
+     * @param bytes      - the encoded patch
+     * @param serializer - the serializer used to read the values
+     * @param <E>        - the type of elements in the patched tree
+     *
+     * @return the decoded patch
+     * @throws IllegalArgumentException if the bytes are not a patch, or a value cannot be read from them
+     */
+    public static <E> TreePatch<E> fromBytes(final byte[] bytes, final ValueSerializer<E> serializer) {
+        try {
+            return TreePatch.read(new DataInputStream(new ByteArrayInputStream(bytes)), serializer);
+        } catch (final IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Malformed patch", e);
+        }
+    }
+
+    static <E> TreePatch<E> read(final DataInput input, final ValueSerializer<E> serializer) throws IOException {
+        final int version = TreeCodec.readVarInt(input);
+        if (version != TreePatch.FORMAT_VERSION) {
+            throw new IOException("Unsupported patch format version: " + version);
+        }
+        final int count = TreeCodec.readCount(input);
+        final List<TreeEdit<E>> edits = new ArrayList<>(TreeCodec.initialCapacity(count));
+        final TreeEdit.Kind[] kinds = TreeEdit.Kind.values();
+        for (int i = 0; i < count; i++) {
+            final int ordinal = input.readUnsignedByte();
+            if (ordinal >= kinds.length) {
+                throw new IOException("Unknown edit kind: " + ordinal);
+            }
+            final int[] path = TreeCodec.readPath(input);
+            edits.add(switch (kinds[ordinal]) {
+                case INSERT -> TreeEdit.insert(path, TreeCodec.readCount(input),
+                                               TreeCodec.readSubtree(input, serializer));
+                case DELETE -> TreeEdit.delete(path);
+                case MOVE -> TreeEdit.move(path, TreeCodec.readPath(input), TreeCodec.readCount(input));
+                case UPDATE -> TreeEdit.update(path, serializer.read(input));
+            });
+        }
+        return new TreePatch<>(edits);
+    }
+
+    /**
+     * Returns the edits of this patch, in application order.
+     *
+     * @return the edits of this patch
+     */
+    public List<TreeEdit<E>> getEdits() {
+        return Collections.unmodifiableList(this.edits);
+    }
+
+    /**
+     * Returns the number of edits of this patch.
+     *
+     * @return the number of edits of this patch
+     */
+    public int size() {
+        return this.edits.size();
+    }
+
+    /**
+     * Returns True if this patch contains no edit, i.e. the diffed trees were equal.
+     *
+     * @return True if this patch contains no edit
+     */
+    public boolean isEmpty() {
+        return this.edits.isEmpty();
+    }
+
+    /**
+     * Encodes this patch in a compact binary form.
+     * Paths and indexes are written as variable-length integers, inserted subtrees in prefix order with their child counts.
+     *
+     * @param serializer - the serializer used to write the values
+     *
+     * @return the encoded patch
+     */
+    public byte[] toBytes(final ValueSerializer<E> serializer) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            this.write(output, serializer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    void write(final DataOutput output, final ValueSerializer<E> serializer) throws IOException {
+        TreeCodec.writeVarInt(output, TreePatch.FORMAT_VERSION);
+        TreeCodec.writeVarInt(output, this.edits.size());
+        for (final TreeEdit<E> edit : this.edits) {
+            output.writeByte(edit.getKind().ordinal());
+            TreeCodec.writePath(output, edit.getPath());
+            switch (edit.getKind()) {
+                case INSERT -> {
+                    TreeCodec.writeVarInt(output, edit.getIndex());
+                    TreeCodec.writeSubtree(output, edit.getSubtree(), serializer);
+                }
+                case MOVE -> {
+                    TreeCodec.writePath(output, edit.getTargetPath());
+                    TreeCodec.writeVarInt(output, edit.getIndex());
+                }
+                case UPDATE -> serializer.write(output, edit.getValue());
+                case DELETE -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the edits of this patch onto a tree.
+     *
+     * @param root - the root node of the patched tree
+     */
+    void applyTo(final INaryTreeNode<E> root) {
+        for (final TreeEdit<E> edit : this.edits) {
+            final int[] path = edit.getPath();
+            switch (edit.getKind()) {
+                case INSERT -> TreePatch.resolve(root, path, path.length)
+                        .add(edit.getIndex(), TreePatch.copy(edit.getSubtree()));
+                case DELETE -> TreePatch.resolve(root, path, path.length - 1).removeChild(path[path.length - 1]);
+                case MOVE -> {
+                    final INaryTreeNode<E> node = TreePatch.resolve(root, path, path.length - 1)
+                            .removeChild(path[path.length - 1]);
+                    final int[] targetPath = edit.getTargetPath();
+                    TreePatch.resolve(root, targetPath, targetPath.length).add(edit.getIndex(), node);
+                }
+                case UPDATE -> TreePatch.resolve(root, path, path.length).setValue(edit.getValue());
+            }
+        }
+    }
+
+    /**
+     * Checks that the edits of this patch can be replayed onto a tree, without modifying it:
+     * every path must lead to an existing node and every index must be in range once the previous edits are applied,
+     * and every edited node must support positional edits (see {@link INaryTreeNode#supportsPositionalEdits()}).
+     * Only the nodes along the edited paths are visited.
+     *
+     * @param root - the root node of the tree to patch
+     *
+     * @throws IndexOutOfBoundsException     if an edit does not fit the tree
+     * @throws UnsupportedOperationException if an edited node does not support positional edits
+     */
+    void checkApplicableTo(final INaryTreeNode<E> root) {
+        final Shape rootShape = new Shape(root, false);
+        for (final TreeEdit<E> edit : this.edits) {
+            final int[] path = edit.getPath();
+            switch (edit.getKind()) {
+                case INSERT -> {
+                    final List<Shape> children = rootShape.resolve(path, path.length).editable().children();
+                    children.add(Shape.checkPosition(edit.getIndex(), children.size()),
+                                 new Shape(edit.getSubtree(), true));
+                }
+                case DELETE -> Shape.detach(rootShape, path);
+                case MOVE -> {
+                    final Shape node = Shape.detach(rootShape, path);
+                    final int[] targetPath = edit.getTargetPath();
+                    final List<Shape> children = rootShape.resolve(targetPath, targetPath.length).editable().children();
+                    children.add(Shape.checkPosition(edit.getIndex(), children.size()), node);
+                }
+                case UPDATE -> rootShape.resolve(path, path.length).editable();
+            }
+        }
+    }
+
+    /**
+     * The shape of a node being patched: its children are only listed once an edit goes through the node.
+     * Inserted subtrees are copies made of {@link NaryTreeNode}s, which are editable whatever the inserted nodes.
+     */
+    private static final class Shape {
+        private final INaryTreeNode<?> node;
+        private final boolean copy;
+        private List<Shape> children;
+
+        private Shape(final INaryTreeNode<?> node, final boolean copy) {
+            this.node = node;
+            this.copy = copy;
+        }
+
+        private static int checkPosition(final int index, final int size) {
+            if ((index < 0) || (index > size)) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for insertion among " + size);
+            }
+            return index;
+        }
+
+        private static Shape detach(final Shape root, final int[] path) {
+            if (path.length == 0) {
+                throw new IndexOutOfBoundsException("The root cannot be detached");
+            }
+            final List<Shape> siblings = root.resolve(path, path.length - 1).editable().children();
+            return siblings.remove(Objects.checkIndex(path[path.length - 1], siblings.size()));
+        }
+
+        private Shape editable() {
+            if (!this.copy && !this.node.supportsPositionalEdits()) {
+                throw new UnsupportedOperationException(
+                        this.node.getClass().getName() + " does not support positional edits");
+            }
+            return this;
+        }
+
+        private List<Shape> children() {
+            if (this.children == null) {
+                this.children = new ArrayList<>(this.node.getChildrenCount());
+                for (final INaryTreeNode<?> child : this.node.getChildren()) {
+                    this.children.add(new Shape(child, this.copy));
+                }
+            }
+            return this.children;
+        }
+
+        private Shape resolve(final int[] path, final int length) {
+            Shape shape = this;
+            for (int i = 0; i < length; i++) {
+                final List<Shape> children = shape.children();
+                shape = children.get(Objects.checkIndex(path[i], children.size()));
+            }
+            return shape;
+        }
+    }
+
+    private static <E> INaryTreeNode<E> resolve(final INaryTreeNode<E> root, final int[] path, final int length) {
+        INaryTreeNode<E> node = root;
+        for (int i = 0; i < length; i++) {
+            node = node.getChild(path[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Copies a subtree, so that applying the same patch twice never shares nodes between trees.
+     */
+    private static <E> INaryTreeNode<E> copy(final INaryTreeNode<E> subtree) {
+        return TreeTransformations.copy(subtree, Function.identity(), value -> true);
+    }
+
+    @Override
+    public String toString() {
+        return "TreePatch" + this.edits;
+    }
+}
@@ -0,0 +1,356 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy search over the nodes of a tree.
+ * A search walks the tree in the order of its {@link Strategy}, and skips the subtrees whose root value
+ * is rejected by its pruning guards: neither the rejected node nor its descendants are visited.
+ * The searches stop as soon as their result is known, and only hold the frontier of the walk,
+ * never a list of all the nodes.
+ * <p>
+ * Searches are immutable: the configuration methods return a new search.
+ * <pre>
+ *      tree.search().bestFirst(Comparator.naturalOrder()).pruning(value -&gt; value &gt; 0).findAll(value -&gt; value % 2 == 0, 10)
+ * </pre>
+ * The tree must not be modified while a search is in progress.
+ *
+ * @param <E> - the type of elements in the searched tree
+ */
+public final class TreeSearch<E> {
+    /**
+     * The order in which a search visits the nodes.
+     */
+    public enum Strategy {
+        /**
+         * Prefix order: a node, then the subtrees of its children, from left to right.
+         */
+        DEPTH_FIRST,
+        /**
+         * By width: each level, from left to right, before the next level.
+         */
+        BREADTH_FIRST,
+        /**
+         * The greatest value of the frontier first, according to the priority of the search;
+         * ties are visited in discovery order.
+         */
+        BEST_FIRST
+    }
+
+    private final INaryTreeNode<E> root;
+    private final Strategy strategy;
+    private final Comparator<? super E> priority;
+    private final Predicate<? super E> guard;
+
+    private TreeSearch(final INaryTreeNode<E> root, final Strategy strategy, final Comparator<? super E> priority,
+                       final Predicate<? super E> guard) {
+        this.root = root;
+        this.strategy = strategy;
+        this.priority = priority;
+        this.guard = guard;
+    }
+
+    /**
+     * Returns a depth-first search over a tree, without pruning.
+     *
+     * @param tree - the tree to search
+     * @param <E>  - the type of elements in the tree
+     *
+     * @return a search over the tree
+     */
+    public static <E> TreeSearch<E> of(final INaryTree<E> tree) {
+        return new TreeSearch<>(tree.getRootNode(), Strategy.DEPTH_FIRST, null, value -> true);
+    }
+
+    /**
+     * Returns this search, visiting the nodes in prefix order.
+     *
+     * @return a depth-first search
+     */
+    public TreeSearch<E> depthFirst() {
+        return new TreeSearch<>(this.root, Strategy.DEPTH_FIRST, null, this.guard);
+    }
+
+    /**
+     * Returns this search, visiting the nodes by width.
+     *
+     * @return a breadth-first search
+     */
+    public TreeSearch<E> breadthFirst() {
+        return new TreeSearch<>(this.root, Strategy.BREADTH_FIRST, null, this.guard);
+    }
+
+    /**
+     * Returns this search, always visiting the greatest value of the frontier first.
+     *
+     * @param priority - the comparator of the values, the greatest being visited first
+     *
+     * @return a best-first search
+     */
+    public TreeSearch<E> bestFirst(final Comparator<? super E> priority) {
+        if (priority == null) {
+            throw new NullPointerException("priority");
+        }
+        return new TreeSearch<>(this.root, Strategy.BEST_FIRST, priority, this.guard);
+    }
+
+    /**
+     * Returns this search, also skipping the subtrees whose root value is rejected by a guard.
+     *
+     * @param guard - the predicate a value must satisfy for its node and its subtree to be visited
+     *
+     * @return a search skipping the rejected subtrees
+     */
+    public TreeSearch<E> pruning(final Predicate<? super E> guard) {
+        final Predicate<? super E> previous = this.guard;
+        return new TreeSearch<>(this.root, this.strategy, this.priority,
+                                value -> previous.test(value) && guard.test(value));
+    }
+
+    /**
+     * Returns the strategy of this search.
+     *
+     * @return the strategy of this search
+     */
+    public Strategy getStrategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Returns a lazy iterator over the visited nodes.
+     *
+     * @return an iterator over the visited nodes
+     */
+    public Iterator<INaryTree<E>> iterator() {
+        return switch (this.strategy) {
+            case DEPTH_FIRST -> new DepthFirstIterator<>(this.root, this.guard);
+            case BREADTH_FIRST -> new BreadthFirstIterator<>(this.root, this.guard);
+            case BEST_FIRST -> new BestFirstIterator<>(this.root, this.guard, this.priority);
+        };
+    }
+
+    /**
+     * Returns a lazy stream of the visited nodes.
+     *
+     * @return a stream of the visited nodes
+     */
+    public Stream<INaryTree<E>> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this.iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the first visited node whose value matches a predicate.
+     *
+     * @param predicate - the predicate to match
+     *
+     * @return the first matching node, or null if no visited node matches
+     */
+    public INaryTree<E> findFirst(final Predicate<? super E> predicate) {
+        final Iterator<INaryTree<E>> nodes = this.iterator();
+        while (nodes.hasNext()) {
+            final INaryTree<E> node = nodes.next();
+            if (predicate.test(((INaryTreeNode<E>) node).getValue())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first visited nodes whose value matches a predicate, in visiting order.
+     * The search stops as soon as the limit is reached.
+     *
+     * @param predicate - the predicate to match
+     * @param limit     - the maximum number of nodes returned
+     *
+     * @return the matching nodes, at most limit of them
+     */
+    public List<INaryTree<E>> findAll(final Predicate<? super E> predicate, final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        final List<INaryTree<E>> found = new ArrayList<>(Math.min(limit, 16));
+        final Iterator<INaryTree<E>> nodes = this.iterator();
+        while ((found.size() < limit) && nodes.hasNext()) {
+            final INaryTree<E> node = nodes.next();
+            if (predicate.test(((INaryTreeNode<E>) node).getValue())) {
+                found.add(node);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the visited nodes holding the k greatest values, greatest first.
+     * The candidates are kept in a heap of at most k nodes; among equal values, the first visited are kept.
+     *
+     * @param comparator - the comparator of the values
+     * @param k          - the maximum number of nodes returned
+     *
+     * @return the nodes holding the greatest values, at most k of them
+     */
+    public List<INaryTree<E>> topK(final Comparator<? super E> comparator, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        // the head of the heap is the worst candidate kept: the smallest value, the last visited among equals
+        final Comparator<Ranked<E>> order = Comparator.<Ranked<E>, E>comparing(ranked -> ranked.node.getValue(),
+                                                                             comparator)
+                .thenComparing(Comparator.<Ranked<E>>comparingLong(ranked -> ranked.rank).reversed());
+        final PriorityQueue<Ranked<E>> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order);
+        final Iterator<INaryTree<E>> nodes = this.iterator();
+        long rank = 0;
+        while (nodes.hasNext()) {
+            final Ranked<E> candidate = new Ranked<>((INaryTreeNode<E>) nodes.next(), rank++);
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (order.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        final List<INaryTree<E>> best = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            best.add(heap.poll().node);
+        }
+        Collections.reverse(best);
+        return best;
+    }
+
+    /**
+     * A node with the rank of its discovery, which breaks the ties between equal values.
+     */
+    private static final class Ranked<E> {
+        private final INaryTreeNode<E> node;
+        private final long rank;
+
+        private Ranked(final INaryTreeNode<E> node, final long rank) {
+            this.node = node;
+            this.rank = rank;
+        }
+    }
+
+    private static final class DepthFirstIterator<E> implements Iterator<INaryTree<E>> {
+        private final Deque<Iterator<INaryTreeNode<E>>> path = new ArrayDeque<>();
+        private final Predicate<? super E> guard;
+        private INaryTreeNode<E> next;
+
+        private DepthFirstIterator(final INaryTreeNode<E> root, final Predicate<? super E> guard) {
+            this.guard = guard;
+            this.path.push(List.of(root).iterator());
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((this.next == null) && !this.path.isEmpty()) {
+                final Iterator<INaryTreeNode<E>> children = this.path.peek();
+                if (!children.hasNext()) {
+                    this.path.pop();
+                    continue;
+                }
+                final INaryTreeNode<E> child = children.next();
+                if (this.guard.test(child.getValue())) {
+                    this.next = child;
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public INaryTree<E> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final INaryTreeNode<E> node = this.next;
+            this.next = null;
+            this.path.push(node.getChildren().iterator());
+            return node;
+        }
+    }
+
+    private static final class BreadthFirstIterator<E> implements Iterator<INaryTree<E>> {
+        private final Deque<INaryTreeNode<E>> queue = new ArrayDeque<>();
+        private final Predicate<? super E> guard;
+
+        private BreadthFirstIterator(final INaryTreeNode<E> root, final Predicate<? super E> guard) {
+            this.guard = guard;
+            if (guard.test(root.getValue())) {
+                this.queue.add(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.queue.isEmpty();
+        }
+
+        @Override
+        public INaryTree<E> next() {
+            final INaryTreeNode<E> node = this.queue.poll();
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            for (final INaryTreeNode<E> child : node.getChildren()) {
+                if (this.guard.test(child.getValue())) {
+                    this.queue.add(child);
+                }
+            }
+            return node;
+        }
+    }
+
+    private static final class BestFirstIterator<E> implements Iterator<INaryTree<E>> {
+        private final PriorityQueue<Ranked<E>> frontier;
+        private final Predicate<? super E> guard;
+        private long discovered;
+
+        private BestFirstIterator(final INaryTreeNode<E> root, final Predicate<? super E> guard,
+                                  final Comparator<? super E> priority) {
+            this.guard = guard;
+            this.frontier = new PriorityQueue<>(
+                    Comparator.<Ranked<E>, E>comparing(ranked -> ranked.node.getValue(), priority.reversed())
+                            .thenComparingLong(ranked -> ranked.rank));
+            this.offer(root);
+        }
+
+        private void offer(final INaryTreeNode<E> node) {
+            if (this.guard.test(node.getValue())) {
+                this.frontier.add(new Ranked<>(node, this.discovered++));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.frontier.isEmpty();
+        }
+
+        @Override
+        public INaryTree<E> next() {
+            final Ranked<E> best = this.frontier.poll();
+            if (best == null) {
+                throw new NoSuchElementException();
+            }
+            for (final INaryTreeNode<E> child : best.node.getChildren()) {
+                this.offer(child);
+            }
+            return best.node;
+        }
+    }
+}
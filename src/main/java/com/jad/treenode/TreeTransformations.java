@@ -0,0 +1,227 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Structure-preserving transformations of trees: copies with mapped values, copies pruned of some subtrees,
+ * and bottom-up folds.
+ * Sequential transformations are iterative, so the depth of the tree is only bounded by the heap.
+ * Parallel transformations fork a task for a subtree only while the workers of the pool lack queued work,
+ * and transform the other subtrees inline with the sequential algorithms, so that a bushy tree does not cost
+ * one task per node. They stop forking below {@value #SPLIT_DEPTH} levels, so their stack usage stays bounded too.
+ */
+final class TreeTransformations {
+    /**
+     * The depth below which parallel transformations stop forking tasks.
+     */
+    static final int SPLIT_DEPTH = 12;
+
+    /**
+     * The number of queued tasks beyond which the current worker has enough work and stops forking.
+     */
+    static final int SURPLUS_TASK_THRESHOLD = 3;
+
+    private TreeTransformations() {
+    }
+
+    /**
+     * Copies a subtree, top-down, skipping the subtrees whose root value is rejected.
+     *
+     * @return the root of the copy, or null if the value of the root is rejected
+     */
+    static <E, R> NaryTreeNode<R> copy(final INaryTreeNode<E> root, final Function<? super E, ? extends R> mapper,
+                                       final Predicate<? super E> keep) {
+        if (!keep.test(root.getValue())) {
+            return null;
+        }
+        final NaryTreeNode<R> copy = new NaryTreeNode<>(mapper.apply(root.getValue()));
+        TreeTransformations.copyChildren(root, copy, mapper, keep);
+        return copy;
+    }
+
+    private static <E, R> void copyChildren(final INaryTreeNode<E> root, final NaryTreeNode<R> rootCopy,
+                                            final Function<? super E, ? extends R> mapper,
+                                            final Predicate<? super E> keep) {
+        final Deque<INaryTreeNode<E>> sources = new ArrayDeque<>();
+        final Deque<NaryTreeNode<R>> copies = new ArrayDeque<>();
+        sources.push(root);
+        copies.push(rootCopy);
+        while (!sources.isEmpty()) {
+            final INaryTreeNode<E> source = sources.pop();
+            final NaryTreeNode<R> copy = copies.pop();
+            for (final INaryTreeNode<E> child : source.getChildren()) {
+                if (keep.test(child.getValue())) {
+                    final NaryTreeNode<R> childCopy = new NaryTreeNode<>(mapper.apply(child.getValue()));
+                    copy.appendFresh(childCopy);
+                    sources.push(child);
+                    copies.push(childCopy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a subtree like {@link #copy(INaryTreeNode, Function, Predicate)}, subtrees being copied in parallel.
+     */
+    static <E, R> NaryTreeNode<R> copy(final INaryTreeNode<E> root, final Function<? super E, ? extends R> mapper,
+                                       final Predicate<? super E> keep, final ForkJoinPool pool) {
+        return pool.invoke(new CopyTask<>(root, mapper, keep, 0));
+    }
+
+    /**
+     * Folds a subtree bottom-up: the folder receives the value of each node and the results of its children, in order.
+     */
+    static <E, R> R fold(final INaryTreeNode<E> root,
+                         final BiFunction<? super E, ? super List<R>, ? extends R> folder) {
+        final Deque<FoldFrame<E, R>> stack = new ArrayDeque<>();
+        stack.push(new FoldFrame<>(root));
+        R result = null;
+        while (!stack.isEmpty()) {
+            final FoldFrame<E, R> frame = stack.peek();
+            if (frame.children.hasNext()) {
+                stack.push(new FoldFrame<>(frame.children.next()));
+                continue;
+            }
+            stack.pop();
+            result = folder.apply(frame.node.getValue(), Collections.unmodifiableList(frame.results));
+            if (!stack.isEmpty()) {
+                stack.peek().results.add(result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Folds a subtree like {@link #fold(INaryTreeNode, BiFunction)}, subtrees being folded in parallel.
+     */
+    static <E, R> R fold(final INaryTreeNode<E> root, final BiFunction<? super E, ? super List<R>, ? extends R> folder,
+                         final ForkJoinPool pool) {
+        return pool.invoke(new FoldTask<>(root, folder, 0));
+    }
+
+    /**
+     * Returns True if a parallel transformation should fork a task for the given child rather than transforming it
+     * inline: the child has children of its own, its depth allows forking, and the pool is short of queued work.
+     */
+    private static boolean shouldFork(final INaryTreeNode<?> child, final int childDepth) {
+        return (childDepth < TreeTransformations.SPLIT_DEPTH) && !child.isLeaf()
+                && (ForkJoinTask.getSurplusQueuedTaskCount() <= TreeTransformations.SURPLUS_TASK_THRESHOLD);
+    }
+
+    private static final class FoldFrame<E, R> {
+        private final INaryTreeNode<E> node;
+        private final Iterator<INaryTreeNode<E>> children;
+        private final List<R> results = new ArrayList<>();
+
+        private FoldFrame(final INaryTreeNode<E> node) {
+            this.node = node;
+            this.children = node.getChildren().iterator();
+        }
+    }
+
+    private static final class CopyTask<E, R> extends RecursiveTask<NaryTreeNode<R>> {
+        private static final long serialVersionUID = 1L;
+
+        private final INaryTreeNode<E> source;
+        private final Function<? super E, ? extends R> mapper;
+        private final Predicate<? super E> keep;
+        private final int depth;
+
+        private CopyTask(final INaryTreeNode<E> source, final Function<? super E, ? extends R> mapper,
+                         final Predicate<? super E> keep, final int depth) {
+            this.source = source;
+            this.mapper = mapper;
+            this.keep = keep;
+            this.depth = depth;
+        }
+
+        @Override
+        protected NaryTreeNode<R> compute() {
+            if ((this.depth >= TreeTransformations.SPLIT_DEPTH) || this.source.isLeaf()) {
+                return TreeTransformations.copy(this.source, this.mapper, this.keep);
+            }
+            if (!this.keep.test(this.source.getValue())) {
+                return null;
+            }
+            final NaryTreeNode<R> copy = new NaryTreeNode<>(this.mapper.apply(this.source.getValue()));
+            final List<INaryTreeNode<E>> children = this.source.getChildren();
+            final List<CopyTask<E, R>> tasks = new ArrayList<>(children.size());
+            final List<NaryTreeNode<R>> childCopies = new ArrayList<>(children.size());
+            for (final INaryTreeNode<E> child : children) {
+                if (TreeTransformations.shouldFork(child, this.depth + 1)) {
+                    final CopyTask<E, R> task = new CopyTask<>(child, this.mapper, this.keep, this.depth + 1);
+                    task.fork();
+                    tasks.add(task);
+                    childCopies.add(null);
+                } else {
+                    tasks.add(null);
+                    childCopies.add(TreeTransformations.copy(child, this.mapper, this.keep));
+                }
+            }
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i) != null) {
+                    childCopies.set(i, tasks.get(i).join());
+                }
+            }
+            for (final NaryTreeNode<R> childCopy : childCopies) {
+                if (childCopy != null) {
+                    copy.appendFresh(childCopy);
+                }
+            }
+            return copy;
+        }
+    }
+
+    private static final class FoldTask<E, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final INaryTreeNode<E> node;
+        private final BiFunction<? super E, ? super List<R>, ? extends R> folder;
+        private final int depth;
+
+        private FoldTask(final INaryTreeNode<E> node, final BiFunction<? super E, ? super List<R>, ? extends R> folder,
+                         final int depth) {
+            this.node = node;
+            this.folder = folder;
+            this.depth = depth;
+        }
+
+        @Override
+        protected R compute() {
+            if ((this.depth >= TreeTransformations.SPLIT_DEPTH) || this.node.isLeaf()) {
+                return TreeTransformations.fold(this.node, this.folder);
+            }
+            final List<INaryTreeNode<E>> children = this.node.getChildren();
+            final List<FoldTask<E, R>> tasks = new ArrayList<>(children.size());
+            final List<R> results = new ArrayList<>(children.size());
+            for (final INaryTreeNode<E> child : children) {
+                if (TreeTransformations.shouldFork(child, this.depth + 1)) {
+                    final FoldTask<E, R> task = new FoldTask<>(child, this.folder, this.depth + 1);
+                    task.fork();
+                    tasks.add(task);
+                    results.add(null);
+                } else {
+                    tasks.add(null);
+                    results.add(TreeTransformations.fold(child, this.folder));
+                }
+            }
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i) != null) {
+                    results.set(i, tasks.get(i).join());
+                }
+            }
+            return this.folder.apply(this.node.getValue(), Collections.unmodifiableList(results));
+        }
+    }
+}
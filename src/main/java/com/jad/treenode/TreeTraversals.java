@@ -0,0 +1,175 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy traversals of trees, by level, by width and in prefix order.
+ * The traversals only get the children of a node when they are about to be visited,
+ * so the nodes beyond the depth limit, or beyond the last level consumed, are never touched.
+ * The tree must not be modified while a traversal is in progress.
+ */
+final class TreeTraversals {
+    private TreeTraversals() {
+    }
+
+    /**
+     * Returns the levels of a subtree, from the root, as a lazy stream of lists of values.
+     */
+    static <E> Stream<List<E>> levels(final INaryTreeNode<E> root) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new LevelIterator<>(root), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Returns the values of a subtree by width, down to a maximum depth, the root being at depth 0.
+     */
+    static <E> Iterator<E> byWidth(final INaryTreeNode<E> root, final int maxDepth) {
+        TreeTraversals.checkDepth(maxDepth);
+        return new ByWidthIterator<>(root, maxDepth);
+    }
+
+    /**
+     * Returns the values of a subtree in prefix order, down to a maximum depth, the root being at depth 0.
+     */
+    static <E> Iterator<E> prefix(final INaryTreeNode<E> root, final int maxDepth) {
+        TreeTraversals.checkDepth(maxDepth);
+        return new PrefixIterator<>(root, maxDepth);
+    }
+
+    private static void checkDepth(final int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        }
+    }
+
+    /**
+     * Holds the nodes of the current level only; the next level is built when it is requested.
+     */
+    private static final class LevelIterator<E> implements Iterator<List<E>> {
+        private List<INaryTreeNode<E>> frontier;
+        private boolean expanded;
+
+        private LevelIterator(final INaryTreeNode<E> root) {
+            this.frontier = List.of(root);
+            this.expanded = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!this.expanded) {
+                final List<INaryTreeNode<E>> next = new ArrayList<>();
+                for (final INaryTreeNode<E> node : this.frontier) {
+                    for (final INaryTreeNode<E> child : node.getChildren()) {
+                        next.add(child);
+                    }
+                }
+                this.frontier = next;
+                this.expanded = true;
+            }
+            return !this.frontier.isEmpty();
+        }
+
+        @Override
+        public List<E> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final List<E> values = new ArrayList<>(this.frontier.size());
+            for (final INaryTreeNode<E> node : this.frontier) {
+                values.add(node.getValue());
+            }
+            this.expanded = false;
+            return Collections.unmodifiableList(values);
+        }
+    }
+
+    /**
+     * Queues the rest of the current level and the part of the next level discovered so far.
+     */
+    private static final class ByWidthIterator<E> implements Iterator<E> {
+        private final Deque<INaryTreeNode<E>> queue = new ArrayDeque<>();
+        private final int maxDepth;
+        private int depth;
+        private int remainingInLevel;
+
+        private ByWidthIterator(final INaryTreeNode<E> root, final int maxDepth) {
+            this.maxDepth = maxDepth;
+            this.queue.add(root);
+            this.remainingInLevel = 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.queue.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            final INaryTreeNode<E> node = this.queue.poll();
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            if (this.depth < this.maxDepth) {
+                for (final INaryTreeNode<E> child : node.getChildren()) {
+                    this.queue.add(child);
+                }
+            }
+            if (--this.remainingInLevel == 0) {
+                this.depth++;
+                this.remainingInLevel = this.queue.size();
+            }
+            return node.getValue();
+        }
+    }
+
+    /**
+     * Stacks an iterator over the remaining children of each node on the path from the root.
+     */
+    private static final class PrefixIterator<E> implements Iterator<E> {
+        private final Deque<Iterator<INaryTreeNode<E>>> path = new ArrayDeque<>();
+        private final int maxDepth;
+        private INaryTreeNode<E> next;
+
+        private PrefixIterator(final INaryTreeNode<E> root, final int maxDepth) {
+            this.maxDepth = maxDepth;
+            this.next = root;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((this.next == null) && !this.path.isEmpty()) {
+                final Iterator<INaryTreeNode<E>> children = this.path.peek();
+                if (children.hasNext()) {
+                    this.next = children.next();
+                } else {
+                    this.path.pop();
+                }
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final INaryTreeNode<E> node = this.next;
+            this.next = null;
+            if (this.path.size() < this.maxDepth) {
+                this.path.push(node.getChildren().iterator());
+            }
+            return node.getValue();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.jad.treenode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Writes and reads the values held by tree nodes in binary encodings.
+ * A serializer must be able to read back exactly what it wrote, including null values.
+ * Fast serializers of common values are provided by {@link ValueSerializers}, where custom serializers
+ * can be registered to encode the values of serialized trees.
+ *
+ * @param <E> - the type of the serialized values
+ */
+public interface ValueSerializer<E> {
+    /**
+     * Returns a serializer that encodes values with Gson, as {@link INaryTree#toJson()} does.
+     *
+     * @param type - the type of the values, used by Gson to read them back
+     * @param <E>  - the type of the serialized values
+     *
+     * @return a Gson based serializer
+     */
+    static <E> ValueSerializer<E> json(final Type type) {
+        return new JsonValueSerializer<>(type);
+    }
+
+    /**
+     * Writes a value.
+     *
+     * @param output - the output to write to
+     * @param value  - the value to write, possibly null
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void write(DataOutput output, E value) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(DataOutput, Object)}.
+     *
+     * @param input - the input to read from
+     *
+     * @return the value read, possibly null
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    E read(DataInput input) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.jad.treenode;
+
+import java.util.Map;
+
+/**
+ * A service providing value serializers, discovered with {@link java.util.ServiceLoader}.
+ * Providers are listed in {@code META-INF/services/com.jad.treenode.ValueSerializerProvider}, and are loaded
+ * the first time {@link ValueSerializers} looks a serializer up.
+ * The serializers they provide are used to encode the values of the trees written with Java serialization.
+ *
+ * @see ValueSerializers#register(Class, ValueSerializer)
+ */
+public interface ValueSerializerProvider {
+    /**
+     * Returns the serializers provided, by class of the values they serialize.
+     * Each serializer must handle the exact class it is registered for.
+     *
+     * @return the serializers provided, by class of value
+     */
+    Map<Class<?>, ValueSerializer<?>> getSerializers();
+}
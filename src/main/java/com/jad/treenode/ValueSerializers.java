@@ -0,0 +1,241 @@
+package com.jad.treenode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Built-in binary serializers of common values, and the registry of the serializers by class of value.
+ * The registry holds the built-in serializers, the serializers of the {@link ValueSerializerProvider} services,
+ * and those registered with {@link #register(Class, ValueSerializer)}.
+ * Trees written with Java serialization encode each value with the serializer registered for its exact class,
+ * and fall back on Java serialization for the other values.
+ * <p>
+ * All the built-in serializers support null values.
+ */
+public final class ValueSerializers {
+    private static final Map<String, ValueSerializer<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    private static final ValueSerializer<String> STRING = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final String value) throws IOException {
+            if (value == null) {
+                TreeCodec.writeVarInt(output, 0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            TreeCodec.writeVarInt(output, bytes.length + 1);
+            output.write(bytes);
+        }
+
+        @Override
+        public String read(final DataInput input) throws IOException {
+            final int length = TreeCodec.readCount(input) - 1;
+            if (length < 0) {
+                return null;
+            }
+            return new String(TreeCodec.readBytes(input, length), StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final ValueSerializer<Integer> INTEGER = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final Integer value) throws IOException {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeInt(value);
+            }
+        }
+
+        @Override
+        public Integer read(final DataInput input) throws IOException {
+            return input.readBoolean() ? input.readInt() : null;
+        }
+    };
+
+    private static final ValueSerializer<Long> LONG = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final Long value) throws IOException {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeLong(value);
+            }
+        }
+
+        @Override
+        public Long read(final DataInput input) throws IOException {
+            return input.readBoolean() ? input.readLong() : null;
+        }
+    };
+
+    private static final ValueSerializer<Double> DOUBLE = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final Double value) throws IOException {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeDouble(value);
+            }
+        }
+
+        @Override
+        public Double read(final DataInput input) throws IOException {
+            return input.readBoolean() ? input.readDouble() : null;
+        }
+    };
+
+    private static final ValueSerializer<Boolean> BOOLEAN = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final Boolean value) throws IOException {
+            output.writeByte((value == null) ? 0 : (value ? 2 : 1));
+        }
+
+        @Override
+        public Boolean read(final DataInput input) throws IOException {
+            final byte value = input.readByte();
+            return (value == 0) ? null : (value == 2);
+        }
+    };
+
+    private static final ValueSerializer<byte[]> BYTES = new ValueSerializer<>() {
+        @Override
+        public void write(final DataOutput output, final byte[] value) throws IOException {
+            if (value == null) {
+                TreeCodec.writeVarInt(output, 0);
+                return;
+            }
+            TreeCodec.writeVarInt(output, value.length + 1);
+            output.write(value);
+        }
+
+        @Override
+        public byte[] read(final DataInput input) throws IOException {
+            final int length = TreeCodec.readCount(input) - 1;
+            return (length < 0) ? null : TreeCodec.readBytes(input, length);
+        }
+    };
+
+    private static volatile boolean providersLoaded;
+
+    static {
+        ValueSerializers.register(String.class, ValueSerializers.STRING);
+        ValueSerializers.register(Integer.class, ValueSerializers.INTEGER);
+        ValueSerializers.register(Long.class, ValueSerializers.LONG);
+        ValueSerializers.register(Double.class, ValueSerializers.DOUBLE);
+        ValueSerializers.register(Boolean.class, ValueSerializers.BOOLEAN);
+        ValueSerializers.register(byte[].class, ValueSerializers.BYTES);
+    }
+
+    private ValueSerializers() {
+    }
+
+    /**
+     * Returns the serializer of strings, encoded in UTF-8.
+     *
+     * @return the serializer of strings
+     */
+    public static ValueSerializer<String> string() {
+        return ValueSerializers.STRING;
+    }
+
+    /**
+     * Returns the serializer of integers.
+     *
+     * @return the serializer of integers
+     */
+    public static ValueSerializer<Integer> integer() {
+        return ValueSerializers.INTEGER;
+    }
+
+    /**
+     * Returns the serializer of long integers.
+     *
+     * @return the serializer of long integers
+     */
+    public static ValueSerializer<Long> longInteger() {
+        return ValueSerializers.LONG;
+    }
+
+    /**
+     * Returns the serializer of doubles.
+     *
+     * @return the serializer of doubles
+     */
+    public static ValueSerializer<Double> doubles() {
+        return ValueSerializers.DOUBLE;
+    }
+
+    /**
+     * Returns the serializer of booleans.
+     *
+     * @return the serializer of booleans
+     */
+    public static ValueSerializer<Boolean> booleans() {
+        return ValueSerializers.BOOLEAN;
+    }
+
+    /**
+     * Returns the serializer of byte arrays.
+     *
+     * @return the serializer of byte arrays
+     */
+    public static ValueSerializer<byte[]> bytes() {
+        return ValueSerializers.BYTES;
+    }
+
+    /**
+     * Registers the serializer of the values of a class, replacing the previous one.
+     * Trees must be read with the same serializers as they were written with.
+     *
+     * @param type       - the exact class of the values
+     * @param serializer - the serializer of the values
+     * @param <T>        - the type of the values
+     */
+    public static <T> void register(final Class<T> type, final ValueSerializer<T> serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("serializer");
+        }
+        ValueSerializers.REGISTRY.put(type.getName(), serializer);
+    }
+
+    /**
+     * Returns the serializer registered for the values of a class.
+     *
+     * @param type - the exact class of the values
+     * @param <T>  - the type of the values
+     *
+     * @return the registered serializer, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueSerializer<T> find(final Class<T> type) {
+        return (ValueSerializer<T>) ValueSerializers.find(type.getName());
+    }
+
+    /**
+     * Returns the serializer registered for the values of a class, given its name.
+     */
+    static ValueSerializer<?> find(final String typeName) {
+        ValueSerializers.loadProviders();
+        return ValueSerializers.REGISTRY.get(typeName);
+    }
+
+    private static void loadProviders() {
+        if (ValueSerializers.providersLoaded) {
+            return;
+        }
+        synchronized (ValueSerializers.class) {
+            if (ValueSerializers.providersLoaded) {
+                return;
+            }
+            for (final ValueSerializerProvider provider : ServiceLoader.load(ValueSerializerProvider.class)) {
+                for (final Map.Entry<Class<?>, ValueSerializer<?>> entry : provider.getSerializers().entrySet()) {
+                    ValueSerializers.REGISTRY.putIfAbsent(entry.getKey().getName(), entry.getValue());
+                }
+            }
+            ValueSerializers.providersLoaded = true;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTreeVisitorTest {
+    @Test
+    void visitAsyncKeepsShape() throws Exception {
+        final INaryTree<String> tree = TestTrees.letters();
+        final INaryTree<Integer> result = tree.visitAsync(value -> CompletableFuture.completedFuture(value.length()))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals("[1] ([1] ([1] ([1]), [1]), [1] ([1]))", result.generateText());
+        final INaryTree<String> lowered = tree.visitAsync(
+                        value -> CompletableFuture.supplyAsync(value::toLowerCase))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("a", "b", "d", "g", "e", "c", "f"), lowered.toPrefixList());
+    }
+
+    @Test
+    void visitAsyncRespectsConcurrencyLimit() throws Exception {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        for (int i = 1; i <= 200; i++) {
+            root.add(i);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            final INaryTree<Integer> result = root.visitAsync(value -> CompletableFuture.supplyAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return value * 2;
+            }, executor), executor, 4, false).get(10, TimeUnit.SECONDS);
+            assertTrue(maxRunning.get() <= 4);
+            assertEquals(201, result.size());
+            assertEquals(400, result.toPrefixList().get(200));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void visitAsyncParentFirst() throws Exception {
+        final INaryTree<String> tree = TestTrees.letters();
+        final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+        tree.visitAsync(value -> CompletableFuture.supplyAsync(() -> {
+            completed.add(value);
+            return value;
+        }), Runnable::run, 8, true).get(10, TimeUnit.SECONDS);
+        assertTrue(completed.indexOf("B") < completed.indexOf("D"));
+        assertTrue(completed.indexOf("D") < completed.indexOf("G"));
+        assertTrue(completed.indexOf("C") < completed.indexOf("F"));
+        assertEquals(7, completed.size());
+    }
+
+    @Test
+    void visitAsyncReportsFailure() {
+        final INaryTree<String> tree = TestTrees.letters();
+        final CompletableFuture<INaryTree<String>> result = tree.visitAsync(value -> {
+            if (value.equals("E")) {
+                throw new IllegalStateException("boom");
+            }
+            return CompletableFuture.completedFuture(value);
+        });
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void visitAsyncOnDeepTreeWithSynchronousCallbacks() throws Exception {
+        final NaryTreeNode<Integer> root = TestTrees.chain(100_000);
+        final INaryTree<Integer> result = root.visitAsync(value -> CompletableFuture.completedFuture(value + 1),
+                                                          Runnable::run, 1, true).get(10, TimeUnit.SECONDS);
+        assertEquals(1, result.getRoot());
+    }
+}
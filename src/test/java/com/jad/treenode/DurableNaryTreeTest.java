@@ -0,0 +1,222 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableNaryTreeTest {
+    private static final ValueSerializer<String> SERIALIZER = ValueSerializer.json(String.class);
+
+    private static DurableNaryTree<String> open(final Path directory) throws IOException {
+        return DurableNaryTree.open(directory, DurableNaryTreeTest.SERIALIZER, 1_000);
+    }
+
+    private static void fill(final DurableNaryTree<String> tree) {
+        tree.setValue(new int[0], "A");
+        tree.add("B");
+        tree.add("C");
+        tree.add(new int[]{0}, "D");
+        tree.add(new int[]{0, 0}, "E");
+        tree.add(new int[]{1}, "F");
+    }
+
+    @Test
+    void recoversFromLog(@TempDir final Path directory) throws IOException {
+        final String expected;
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            tree.remove("C");
+            tree.setValue(new int[]{0, 0}, "D2");
+            expected = tree.generateText();
+        }
+        assertFalse(Files.exists(directory.resolve(DurableNaryTree.SNAPSHOT_FILE)));
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(expected, tree.generateText());
+            assertEquals(8, tree.getLastSequence());
+        }
+    }
+
+    @Test
+    void recoversFromSnapshotAndLog(@TempDir final Path directory) throws IOException {
+        final String expected;
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            tree.checkpoint();
+            assertEquals(0, Files.size(directory.resolve(DurableNaryTree.LOG_FILE)));
+            tree.remove(new int[]{0, 0});
+            tree.add("G");
+            expected = tree.generateText();
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(expected, tree.generateText());
+            tree.add("H");
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertTrue(tree.contains("H"));
+            assertEquals(9, tree.getLastSequence());
+        }
+    }
+
+    @Test
+    void checkpointsPeriodically(@TempDir final Path directory) throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTree.open(directory, DurableNaryTreeTest.SERIALIZER, 5)) {
+            DurableNaryTreeTest.fill(tree);
+            assertTrue(Files.exists(directory.resolve(DurableNaryTree.SNAPSHOT_FILE)));
+            assertTrue(Files.size(directory.resolve(DurableNaryTree.LOG_FILE)) > 0);
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(6, tree.size());
+        }
+    }
+
+    @Test
+    void discardsTornTail(@TempDir final Path directory) throws IOException {
+        final String expected;
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            expected = tree.generateText();
+            tree.add("Lost");
+        }
+        final Path log = directory.resolve(DurableNaryTree.LOG_FILE);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(expected, tree.generateText());
+            tree.add("Kept");
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertTrue(tree.contains("Kept"));
+            assertFalse(tree.contains("Lost"));
+        }
+    }
+
+    @Test
+    void discardsCorruptedRecords(@TempDir final Path directory) throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+        }
+        final Path log = directory.resolve(DurableNaryTree.LOG_FILE);
+        final byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(log, bytes);
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertFalse(tree.contains("F"));
+            assertTrue(tree.contains("E"));
+        }
+    }
+
+    @Test
+    void ignoresRecordsOlderThanTheSnapshot(@TempDir final Path directory) throws IOException {
+        final Path log = directory.resolve(DurableNaryTree.LOG_FILE);
+        final byte[] oldLog;
+        final String expected;
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            tree.sync();
+            oldLog = Files.readAllBytes(log);
+            tree.checkpoint();
+            expected = tree.generateText();
+        }
+        // a crash between the snapshot and the truncation of the log leaves the old records behind
+        Files.write(log, oldLog);
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(expected, tree.generateText());
+        }
+    }
+
+    @Test
+    void rejectedModificationIsNotLogged(@TempDir final Path directory) throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            assertThrows(IndexOutOfBoundsException.class, () -> tree.setValue(new int[]{5}, "X"));
+            assertThrows(IndexOutOfBoundsException.class,
+                         () -> tree.apply(new TreePatch<>(List.of(TreeEdit.delete(new int[]{7})))));
+            assertEquals(6, tree.getLastSequence());
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(6, tree.size());
+        }
+    }
+
+    @Test
+    void discardsRecordsLongerThanTheLog(@TempDir final Path directory) throws IOException {
+        final String expected;
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            expected = tree.generateText();
+        }
+        final Path log = directory.resolve(DurableNaryTree.LOG_FILE);
+        final long validLength = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(16).putInt(0x7ff00000).putLong(7).putInt(0).flip());
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertEquals(expected, tree.generateText());
+            assertEquals(validLength, Files.size(log));
+        }
+    }
+
+    @Test
+    void invalidPatchLeavesTheTreeUntouched(@TempDir final Path directory) throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            DurableNaryTreeTest.fill(tree);
+            final String expected = tree.generateText();
+            final TreePatch<String> patch = new TreePatch<>(List.of(TreeEdit.update(new int[]{0}, "X"),
+                                                                    TreeEdit.delete(new int[]{0}),
+                                                                    TreeEdit.delete(new int[]{1})));
+            assertThrows(IndexOutOfBoundsException.class, () -> tree.apply(patch));
+            assertEquals(expected, tree.generateText());
+            assertEquals(6, tree.getLastSequence());
+        }
+    }
+
+    @Test
+    void removeFromTheDefaultTree(@TempDir final Path directory) throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory)) {
+            assertNull(tree.getRoot());
+            assertFalse(tree.remove("A"));
+            tree.add("A");
+            assertTrue(tree.remove("A"));
+            assertEquals(2, tree.getLastSequence());
+        }
+    }
+
+    @Test
+    void concurrentModificationsAreLoggedBeforeReturning(@TempDir final Path directory) throws Exception {
+        final Path crashed = directory.resolve("crashed");
+        Files.createDirectories(crashed);
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(directory.resolve("tree"))) {
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final String prefix = "T" + t + "-";
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        tree.add(prefix + i);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+            // a copy of the files taken before closing, as a crash would leave them
+            Files.copy(directory.resolve("tree").resolve(DurableNaryTree.LOG_FILE),
+                       crashed.resolve(DurableNaryTree.LOG_FILE));
+        }
+        try (DurableNaryTree<String> tree = DurableNaryTreeTest.open(crashed)) {
+            assertEquals(801, tree.size());
+            assertEquals(800, tree.getLastSequence());
+        }
+    }
+}
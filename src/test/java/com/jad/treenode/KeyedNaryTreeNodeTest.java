@@ -0,0 +1,158 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedNaryTreeNodeTest {
+    /**
+     * A directory hierarchy: values are paths, keyed by their last segment.
+     */
+    private static KeyedNaryTreeNode<String, String> directoryTree() {
+        final KeyedNaryTreeNode<String, String> root = new KeyedNaryTreeNode<>(
+                "/", path -> path.substring(path.lastIndexOf('/') + 1), Comparator.naturalOrder());
+        root.add("/usr");
+        root.add("/etc");
+        root.add("/bin");
+        final KeyedNaryTreeNode<String, String> usr = root.getChildByKey("usr");
+        usr.add("/usr/lib");
+        usr.add("/usr/bin");
+        usr.getChildByKey("lib").add("/usr/lib/jvm");
+        return root;
+    }
+
+    private static List<String> keys(final KeyedNaryTreeNode<String, String> node) {
+        final List<String> keys = new ArrayList<>();
+        for (final INaryTreeNode<String> child : node.getChildren()) {
+            keys.add((String) ((KeyedNaryTreeNode<?, ?>) child).getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    void childrenAreSorted() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        assertEquals(List.of("bin", "etc", "usr"), KeyedNaryTreeNodeTest.keys(root));
+        assertEquals("/etc", root.getChild(1).getValue());
+        assertEquals(List.of("/", "/bin", "/etc", "/usr", "/usr/bin", "/usr/lib", "/usr/lib/jvm"), root.toPrefixList());
+    }
+
+    @Test
+    void getChildByKeyAndResolve() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        assertEquals("/usr/bin", root.getChildByKey("usr").getChildByKey("bin").getValue());
+        assertNull(root.getChildByKey("opt"));
+        assertEquals("/usr/lib/jvm", root.resolve("usr", "lib", "jvm").getValue());
+        assertEquals("/usr/lib/jvm", root.resolve(List.of("usr", "lib", "jvm")).getValue());
+        assertSame(root, root.resolve());
+        assertNull(root.resolve("usr", "local", "bin"));
+    }
+
+    @Test
+    void duplicateKeysAreRejected() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        assertFalse(root.add("/other/etc"));
+        assertEquals(3, root.getChildrenCount());
+        assertThrows(IllegalArgumentException.class, () -> root.getChildByKey("etc").setValue("/usr"));
+        assertEquals("/etc", root.getChildByKey("etc").getValue());
+    }
+
+    @Test
+    void remove() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        assertFalse(root.remove("/other/etc"));
+        assertFalse(root.remove(42));
+        assertTrue(root.remove("/etc"));
+        assertEquals(List.of("bin", "usr"), KeyedNaryTreeNodeTest.keys(root));
+        assertEquals("/bin", root.removeKey("bin").getValue());
+        assertNull(root.removeKey("bin"));
+        assertEquals("/usr", root.removeChild(0).getValue());
+        assertTrue(root.isLeaf());
+    }
+
+    @Test
+    void setValueMovesTheNode() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        final KeyedNaryTreeNode<String, String> bin = root.getChildByKey("bin");
+        bin.setValue("/var");
+        assertEquals(List.of("etc", "usr", "var"), KeyedNaryTreeNodeTest.keys(root));
+        assertSame(bin, root.getChildByKey("var"));
+        assertNull(root.getChildByKey("bin"));
+    }
+
+    @Test
+    void nodesMustBelongToTheTree() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        final KeyedNaryTreeNode<String, String> usr = root.getChildByKey("usr");
+        assertThrows(IllegalArgumentException.class, () -> root.add(new NaryTreeNode<>("/opt")));
+        assertThrows(IllegalArgumentException.class, () -> root.add(KeyedNaryTreeNodeTest.directoryTree()));
+        assertThrows(IllegalArgumentException.class, () -> root.add(usr.getChildByKey("lib")));
+        assertThrows(IllegalArgumentException.class, () -> usr.getChildByKey("lib").add(root.removeKey("usr")));
+        assertThrows(UnsupportedOperationException.class, () -> root.add(0, root.newNode("/opt")));
+        final KeyedNaryTreeNode<String, String> lib = usr.removeKey("lib");
+        assertTrue(root.add(lib));
+        assertEquals("/usr/lib/jvm", root.resolve("lib", "jvm").getValue());
+    }
+
+    @Test
+    void hashIndexMatchesBinarySearch() {
+        final Random random = new Random(7);
+        final KeyedNaryTreeNode<Integer, Integer> indexed = new KeyedNaryTreeNode<>(0, value -> value,
+                                                                                   Comparator.naturalOrder(), 8);
+        final KeyedNaryTreeNode<Integer, Integer> searched = KeyedNaryTreeNode.byValue(0, Comparator.naturalOrder());
+        final TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            final int value = random.nextInt(100);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), indexed.add(value));
+                searched.add(value);
+            } else {
+                assertEquals(expected.remove(value), indexed.removeKey(value) != null);
+                searched.removeKey(value);
+            }
+            final int probe = random.nextInt(100);
+            assertEquals(expected.contains(probe), indexed.getChildByKey(probe) != null);
+            assertEquals(expected.contains(probe), searched.getChildByKey(probe) != null);
+        }
+        assertEquals(new ArrayList<>(expected), indexed.toPrefixList().subList(1, expected.size() + 1));
+        assertEquals(indexed, searched);
+    }
+
+    @Test
+    void addAllMergesWithTheChildren() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNodeTest.directoryTree();
+        assertEquals(2, root.addAll(List.of("/var", "/etc", "/opt", "/other/var")));
+        assertEquals(List.of("bin", "etc", "opt", "usr", "var"), KeyedNaryTreeNodeTest.keys(root));
+        assertEquals("/var", root.getChildByKey("var").getValue());
+        assertEquals(0, root.addAll(List.of("/bin")));
+        assertEquals(0, root.addAll(List.of()));
+        assertTrue(root.getChildByKey("opt").add("/opt/jdk"));
+        final KeyedNaryTreeNode<Integer, Integer> indexed = new KeyedNaryTreeNode<>(0, value -> value,
+                                                                                   Comparator.naturalOrder(), 4);
+        assertEquals(6, indexed.addAll(List.of(6, 1, 5, 2, 4, 3)));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), indexed.toPrefixList());
+        assertEquals(4, indexed.getChildByKey(4).getValue());
+    }
+
+    @Test
+    void wideNodes() {
+        final KeyedNaryTreeNode<Integer, Integer> root = KeyedNaryTreeNode.byValue(-1, Comparator.naturalOrder());
+        final List<Integer> descending = new ArrayList<>();
+        for (int i = 99_999; i >= 0; i--) {
+            descending.add(i);
+        }
+        assertEquals(100_000, root.addAll(descending));
+        assertEquals(100_000, root.getChildrenCount());
+        assertEquals(12_345, root.getChildByKey(12_345).getValue());
+        assertEquals(12_345, root.getChild(12_345).getValue());
+        assertTrue(root.remove(Integer.valueOf(50_000)));
+        assertNull(root.getChildByKey(50_000));
+        assertTrue(root.memoryFootprint().getChildStorageBytes() > 0);
+    }
+}
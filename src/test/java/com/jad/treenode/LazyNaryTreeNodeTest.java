@@ -0,0 +1,115 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyNaryTreeNodeTest {
+    /**
+     * A complete tree of integers: node n has children 10n+1 to 10n+fanOut, up to a maximum value.
+     */
+    private static ChildLoader<Integer> countingLoader(final AtomicInteger loads, final int fanOut, final int max) {
+        return value -> {
+            loads.incrementAndGet();
+            final List<Integer> children = new ArrayList<>();
+            for (int i = 1; i <= fanOut; i++) {
+                if ((value * 10 + i) <= max) {
+                    children.add(value * 10 + i);
+                }
+            }
+            return children;
+        };
+    }
+
+    @Test
+    void childrenAreLoadedOnFirstAccess() {
+        final AtomicInteger loads = new AtomicInteger();
+        final LazyNaryTreeNode<Integer> root = new LazyNaryTreeNode<>(0,
+                                                                      LazyNaryTreeNodeTest.countingLoader(loads, 3, 1000));
+        assertFalse(root.isLoaded());
+        assertEquals(0, loads.get());
+        assertEquals(3, root.getChild(2).getValue());
+        assertEquals(1, loads.get());
+        root.getChild(2).getChildren();
+        root.getChild(2).getChildren();
+        assertEquals(2, loads.get());
+        assertEquals(6, root.getLoadedNodeCount());
+        assertEquals(List.of(0, 1, 2, 3, 11, 12, 13, 21, 22, 23, 31, 32, 33, 111, 112, 113), root.toByWidthList().subList(0, 16));
+    }
+
+    @Test
+    void coldSubtreesAreEvicted() {
+        final AtomicInteger loads = new AtomicInteger();
+        final LazyNaryTreeNode<Integer> root = new LazyNaryTreeNode<>(0,
+                                                                      LazyNaryTreeNodeTest.countingLoader(loads, 3, 3333),
+                                                                      10);
+        final NaryTreeNode<Integer> eager = TreeTransformations.copy(
+                new LazyNaryTreeNode<>(0, LazyNaryTreeNodeTest.countingLoader(new AtomicInteger(), 3, 3333)),
+                value -> value, value -> true);
+        assertEquals(eager.toPrefixList(), root.toPrefixList());
+        assertTrue(root.getLoadedNodeCount() <= 10);
+        assertTrue(root.getEvictionCount() > 0);
+        final int before = loads.get();
+        assertEquals(List.of(311, 312, 313), root.getChild(2).getChild(0).getChildren().stream()
+                .map(INaryTreeNode::getValue).toList());
+        assertTrue(loads.get() > before);
+    }
+
+    @Test
+    void lazyNodesAreReadOnly() {
+        final LazyNaryTreeNode<Integer> root = new LazyNaryTreeNode<>(0, value -> List.of());
+        assertTrue(root.isLeaf());
+        assertThrows(UnsupportedOperationException.class, () -> root.add(1));
+        assertThrows(UnsupportedOperationException.class, () -> root.setValue(1));
+    }
+
+    @Test
+    void fileChildLoader() throws IOException {
+        final Path directory = Files.createTempDirectory("lazy");
+        try {
+            Files.createDirectories(directory.resolve("b").resolve("c"));
+            Files.writeString(directory.resolve("a.txt"), "a");
+            Files.writeString(directory.resolve("b").resolve("d.txt"), "d");
+            final LazyNaryTreeNode<Path> root = new LazyNaryTreeNode<>(directory, new FileChildLoader(), 2);
+            assertEquals(List.of("a.txt", "b", "c", "d.txt"),
+                         root.toPrefixList().stream().skip(1).map(path -> path.getFileName().toString()).toList());
+            assertEquals(3, root.getHeight());
+            assertEquals(3, root.getNumberOfLeaves());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void deepPathsStayWithinTheBound() {
+        final AtomicInteger loads = new AtomicInteger();
+        final ChildLoader<Integer> chain = value -> {
+            loads.incrementAndGet();
+            return (value < 200) ? List.of(value + 1) : List.of();
+        };
+        final LazyNaryTreeNode<Integer> root = new LazyNaryTreeNode<>(0, chain, 10);
+        INaryTreeNode<Integer> node = root;
+        while (!node.isLeaf()) {
+            node = node.getChild(0);
+            assertTrue(root.getLoadedNodeCount() <= 10);
+        }
+        assertEquals(200, node.getValue());
+        assertEquals(201, loads.get());
+        assertTrue(root.getEvictionCount() > 0);
+        // the unloaded ancestors are loaded again by a new walk from the root
+        assertEquals(201, root.levels().count());
+        assertTrue(loads.get() > 201);
+        assertTrue(root.getLoadedNodeCount() <= 10);
+    }
+}
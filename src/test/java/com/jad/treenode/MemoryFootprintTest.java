@@ -0,0 +1,121 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryFootprintTest {
+    @Test
+    void leavesHaveNoChildStorage() {
+        final NaryTreeNode<String> leaf = new NaryTreeNode<>("A");
+        final MemoryFootprint footprint = leaf.memoryFootprint();
+        assertEquals(1, footprint.getNodeCount());
+        assertEquals(0, footprint.getChildStorageBytes());
+        assertEquals(MemoryFootprint.shallowSize(NaryTreeNode.class), footprint.getNodeBytes());
+        assertSame(leaf.getChildren(), new NaryTreeNode<String>("B").getChildren());
+    }
+
+    @Test
+    void firstChildCostsANodeAListAndItsArray() {
+        final NaryTreeNode<String> node = new NaryTreeNode<>("A");
+        final long leafBytes = node.memoryFootprint().getTotalBytes();
+        node.add("A");
+        assertEquals(MemoryFootprint.shallowSize(NaryTreeNode.class)
+                             + MemoryFootprint.listBytes(1, NaryTreeNode.INITIAL_CHILDREN_CAPACITY),
+                     node.memoryFootprint().getTotalBytes() - leafBytes);
+    }
+
+    @Test
+    void childStorageIsReleasedWithTheLastChild() {
+        final NaryTreeNode<String> node = new NaryTreeNode<>("A");
+        node.add("B");
+        node.add("C");
+        assertTrue(node.memoryFootprint().getChildStorageBytes() > 0);
+        node.remove("B");
+        node.removeChild(0);
+        assertTrue(node.isLeaf());
+        assertEquals(0, node.memoryFootprint().getChildStorageBytes());
+        node.add("D");
+        assertEquals(List.of("A", "D"), node.toPrefixList());
+    }
+
+    @Test
+    void breakdown() {
+        final String shared = "shared";
+        final NaryTree<String> tree = new NaryTree<>("root");
+        tree.add(shared);
+        tree.add(shared);
+        tree.add("été →");
+        final MemoryFootprint footprint = tree.memoryFootprint();
+        assertEquals(4, footprint.getNodeCount());
+        assertEquals(3, footprint.getValueCount());
+        // each String is 24 bytes, with a Latin-1 array of 4 or 6 bytes or a UTF-16 array of 5 characters
+        assertEquals((24 + 24) + (24 + 24) + (24 + 32), footprint.getValueBytes());
+        assertEquals(24 + 24, MemoryFootprint.estimateValue("root"));
+        assertEquals(24 + 32, MemoryFootprint.estimateValue("été →"));
+        assertEquals(16, MemoryFootprint.estimateValue(42));
+        assertEquals(16 + 8 * 3, MemoryFootprint.estimateValue(new long[3]));
+        assertEquals(footprint.getNodeBytes() + footprint.getChildStorageBytes() + footprint.getValueBytes(),
+                     footprint.getTotalBytes());
+        assertEquals(3 * 40, tree.memoryFootprint(value -> 40).getValueBytes());
+    }
+
+    @Test
+    void bytesPerNodeOfBalancedTrees() {
+        final MemoryFootprint footprint = TestTrees.balanced(4, 9).memoryFootprint();
+        assertEquals(87_381, footprint.getNodeCount());
+        // a 32-byte node, and a quarter of a list of four children
+        assertTrue(footprint.getStructureBytesPerNode() <= 48, footprint.toString());
+        assertEquals(87_381, footprint.getValueCount());
+    }
+
+    @Test
+    void bytesPerNodeOfLeafHeavyTrees() {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        for (int i = 0; i < 1_000; i++) {
+            final NaryTreeNode<Integer> parent = new NaryTreeNode<>(i);
+            for (int j = 0; j < 100; j++) {
+                parent.add(j);
+            }
+            root.add(parent);
+        }
+        final MemoryFootprint footprint = root.memoryFootprint();
+        assertEquals(101_001, footprint.getNodeCount());
+        assertTrue(footprint.getStructureBytesPerNode() <= 40, footprint.toString());
+    }
+
+    @Test
+    void widerTreesCostLessPerNode() {
+        final double chainBytes = TestTrees.chain(1_000).memoryFootprint().getStructureBytesPerNode();
+        final double binaryBytes = TestTrees.balanced(2, 10).memoryFootprint().getStructureBytesPerNode();
+        final double wideBytes = TestTrees.balanced(32, 3).memoryFootprint().getStructureBytesPerNode();
+        assertTrue(chainBytes > binaryBytes, chainBytes + " <= " + binaryBytes);
+        assertTrue(binaryBytes > wideBytes, binaryBytes + " <= " + wideBytes);
+    }
+
+    @Test
+    void sharedSubtreesAreCountedOnce() {
+        final NaryTreeNodeInterner<String> interner = new NaryTreeNodeInterner<>();
+        final ImmutableNaryTreeNode<String> shared = interner.node("x", List.of(interner.leaf("y"), interner.leaf("z")));
+        final ImmutableNaryTreeNode<String> root = interner.node("r", List.of(shared, shared, shared));
+        final MemoryFootprint footprint = root.memoryFootprint();
+        assertEquals(4, footprint.getNodeCount());
+        assertEquals(4, footprint.getValueCount());
+        final MemoryFootprint copy = TreeTransformations.copy(root, value -> value, value -> true).memoryFootprint();
+        assertEquals(10, copy.getNodeCount());
+        assertTrue(footprint.getTotalBytes() < copy.getTotalBytes());
+    }
+
+    @Test
+    void lazyTreesAreNotLoaded() {
+        final LazyNaryTreeNode<Integer> root = new LazyNaryTreeNode<>(1, value -> List.of(value * 2, value * 2 + 1));
+        assertEquals(1, root.memoryFootprint().getNodeCount());
+        assertFalse(root.isLoaded());
+        root.getChild(0).getChildren();
+        final MemoryFootprint footprint = root.memoryFootprint();
+        assertEquals(5, footprint.getNodeCount());
+        assertTrue(footprint.getChildStorageBytes() > 0);
+    }
+}
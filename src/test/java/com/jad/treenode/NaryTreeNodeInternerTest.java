@@ -0,0 +1,66 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NaryTreeNodeInternerTest {
+    private static NaryTreeNode<String> createRepetitiveTree(final int copies) {
+        final NaryTreeNode<String> root = new NaryTreeNode<>("root");
+        for (int i = 0; i < copies; i++) {
+            final NaryTreeNode<String> section = new NaryTreeNode<>("section");
+            final NaryTreeNode<String> options = new NaryTreeNode<>("options");
+            section.add(options);
+            section.add("name");
+            options.add("a");
+            options.add("b");
+            root.add(section);
+        }
+        return root;
+    }
+
+    @Test
+    void internSharesIdenticalSubtrees() {
+        final NaryTreeNodeInterner<String> interner = new NaryTreeNodeInterner<>();
+        final ImmutableNaryTreeNode<String> root = interner.intern(NaryTreeNodeInternerTest.createRepetitiveTree(1000));
+        assertSame(root.getChild(0), root.getChild(999));
+        assertEquals(6, interner.getUniqueNodeCount());
+        assertEquals(5001, interner.getInternedNodeCount());
+        assertEquals(4995, interner.getSharedNodeCount());
+        assertTrue(interner.getEstimatedSavedBytes() > 0);
+    }
+
+    @Test
+    void readOperationsSeeTheWholeTree() {
+        final NaryTreeNode<String> tree = NaryTreeNodeInternerTest.createRepetitiveTree(3);
+        final ImmutableNaryTreeNode<String> root = new NaryTreeNodeInterner<String>().intern(new NaryTree<>("x"));
+        final ImmutableNaryTreeNode<String> interned = new NaryTreeNodeInterner<String>().intern(tree);
+        assertEquals(tree.size(), interned.size());
+        assertEquals(tree.getHeight(), interned.getHeight());
+        assertEquals(tree.getNumberOfLeaves(), interned.getNumberOfLeaves());
+        assertEquals(tree.toPrefixList(), interned.toPrefixList());
+        assertEquals(tree.toPostfixList(), interned.toPostfixList());
+        assertEquals(tree.toByWidthList(), interned.toByWidthList());
+        assertEquals(tree.toJson(), interned.toJson());
+        assertEquals(tree.generateText(), interned.generateText());
+        assertEquals(tree.toPrettyText(), interned.toPrettyText());
+        assertEquals(tree, interned);
+        assertEquals(tree.hashCode(), interned.hashCode());
+        assertEquals("x", root.getValue());
+    }
+
+    @Test
+    void internedNodesAreImmutable() {
+        final NaryTreeNodeInterner<String> interner = new NaryTreeNodeInterner<>();
+        final ImmutableNaryTreeNode<String> leaf = interner.leaf("leaf");
+        final ImmutableNaryTreeNode<String> node = interner.node("node", List.of(leaf, leaf));
+        assertSame(node, interner.node("node", List.of(interner.leaf("leaf"), leaf)));
+        assertThrows(UnsupportedOperationException.class, () -> node.add("child"));
+        assertThrows(UnsupportedOperationException.class, () -> node.removeChild(0));
+        assertThrows(UnsupportedOperationException.class, () -> node.setValue("other"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> interner.node("node", List.of(new NaryTreeNodeInterner<String>().leaf("leaf"))));
+    }
+}
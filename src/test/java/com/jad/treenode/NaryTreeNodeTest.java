@@ -2,8 +2,12 @@ package com.jad.treenode;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -316,4 +320,79 @@ class NaryTreeNodeTest {
         List<String> byWidthListExpected = List.of("A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M");
         assertEquals(byWidthListExpected, list);
     }
-}
\ No newline at end of file
+
+    @Test
+    void equalsAndHashCode() {
+        final NaryTreeNode<String> a = NaryTreeNodeTest.createTestTreeNode();
+        final NaryTreeNode<String> b = NaryTreeNodeTest.createTestTreeNode();
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, a.getChild(0));
+        b.getChild(1).getChild(2).setValue("Z");
+        assertNotEquals(a, b);
+        b.getChild(1).getChild(2).setValue("J");
+        assertEquals(a, b);
+        b.getChild(0).getChild(0).removeChild(2);
+        assertNotEquals(a, b);
+        b.getChild(0).getChild(0).add("M");
+        assertEquals(a, b);
+    }
+
+    @Test
+    void structuralHashTracksChanges() {
+        final NaryTreeNode<String> a = NaryTreeNodeTest.createTestTreeNode();
+        final int hash = a.structuralHash();
+        final INaryTreeNode<String> k = a.getChild(0).getChild(0).getChild(0);
+        k.add("N");
+        assertNotEquals(hash, a.structuralHash());
+        assertTrue(k.remove("N"));
+        assertEquals(hash, a.structuralHash());
+        final INaryTreeNode<String> d = a.getChild(0).removeChild(0);
+        a.getChild(1).add(d);
+        final int movedHash = a.structuralHash();
+        d.setValue("X");
+        assertNotEquals(movedHash, a.structuralHash());
+    }
+
+    @Test
+    void addKeepsStructurallyEqualChildren() {
+        final NaryTreeNode<String> treeNode = new NaryTreeNode<>("root");
+        final NaryTreeNode<String> child = new NaryTreeNode<>("child");
+        assertTrue(treeNode.add(child));
+        assertFalse(treeNode.add(child));
+        assertTrue(treeNode.add(new NaryTreeNode<>("child")));
+        assertEquals(2, treeNode.getChildrenCount());
+        assertEquals(1, new HashSet<>(treeNode.getChildren()).size());
+    }
+
+    @Test
+    void equalsOnDeepTrees() {
+        final NaryTreeNode<Integer> a = new NaryTreeNode<>(0);
+        final NaryTreeNode<Integer> b = new NaryTreeNode<>(0);
+        INaryTreeNode<Integer> lastA = a;
+        INaryTreeNode<Integer> lastB = b;
+        for (int i = 1; i < 100_000; i++) {
+            final NaryTreeNode<Integer> nextA = new NaryTreeNode<>(i);
+            final NaryTreeNode<Integer> nextB = new NaryTreeNode<>(i);
+            lastA.add(nextA);
+            lastB.add(nextB);
+            lastA = nextA;
+            lastB = nextB;
+        }
+        assertEquals(a, b);
+        lastB.setValue(-1);
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    void hashBasedCollectionsLoseModifiedNodes() {
+        final NaryTreeNode<Integer> node = new NaryTreeNode<>(1);
+        final Set<NaryTreeNode<Integer>> structural = new HashSet<>();
+        final Set<NaryTreeNode<Integer>> identity = Collections.newSetFromMap(new IdentityHashMap<>());
+        structural.add(node);
+        identity.add(node);
+        node.add(2);
+        assertFalse(structural.contains(node));
+        assertTrue(identity.contains(node));
+    }
+}
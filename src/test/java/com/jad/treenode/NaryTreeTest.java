@@ -29,5 +29,7 @@ class NaryTreeTest {
         assertFalse(tree.contains("child1"));
         tree.remove("root");
         assertFalse(tree.contains("root"));
+        tree = new NaryTree<>();
+        assertFalse(tree.remove("root"));
     }
 }
\ No newline at end of file
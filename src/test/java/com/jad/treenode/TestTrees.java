@@ -0,0 +1,110 @@
+package com.jad.treenode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The trees shared by the tests.
+ */
+final class TestTrees {
+    /**
+     * A small tree of letters.
+     * <pre>
+     *        A
+     *      /   \
+     *     B     C
+     *    / \    |
+     *   D   E   F
+     *   |
+     *   G
+     * </pre>
+     */
+    static NaryTree<String> letters() {
+        final NaryTree<String> tree = new NaryTree<>("A");
+        final INaryTreeNode<String> a = tree.getRootNode();
+        final NaryTreeNode<String> b = new NaryTreeNode<>("B");
+        final NaryTreeNode<String> c = new NaryTreeNode<>("C");
+        final NaryTreeNode<String> d = new NaryTreeNode<>("D");
+        a.add(b);
+        a.add(c);
+        b.add(d);
+        b.add("E");
+        c.add("F");
+        d.add("G");
+        return tree;
+    }
+
+    /**
+     * A small tree of integers, whose values are not ordered.
+     * <pre>
+     *          5
+     *       /  |  \
+     *      3   8   1
+     *     / \  |  / \
+     *    9  2  4 7   6
+     * </pre>
+     */
+    static NaryTree<Integer> numbers() {
+        final NaryTree<Integer> tree = new NaryTree<>(5);
+        final INaryTreeNode<Integer> root = tree.getRootNode();
+        final NaryTreeNode<Integer> three = new NaryTreeNode<>(3);
+        final NaryTreeNode<Integer> eight = new NaryTreeNode<>(8);
+        final NaryTreeNode<Integer> one = new NaryTreeNode<>(1);
+        root.add(three);
+        root.add(eight);
+        root.add(one);
+        three.add(9);
+        three.add(2);
+        eight.add(4);
+        one.add(7);
+        one.add(6);
+        return tree;
+    }
+
+    /**
+     * A complete tree with a given fan-out and number of levels, numbered level by level from 0.
+     */
+    static NaryTreeNode<Integer> balanced(final int fanOut, final int levels) {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        Deque<NaryTreeNode<Integer>> level = new ArrayDeque<>();
+        level.add(root);
+        int value = 1;
+        for (int depth = 1; depth < levels; depth++) {
+            final Deque<NaryTreeNode<Integer>> next = new ArrayDeque<>();
+            for (final NaryTreeNode<Integer> parent : level) {
+                for (int i = 0; i < fanOut; i++) {
+                    final NaryTreeNode<Integer> child = new NaryTreeNode<>(value++);
+                    parent.add(child);
+                    next.add(child);
+                }
+            }
+            level = next;
+        }
+        return root;
+    }
+
+    /**
+     * A tree of a given number of nodes, each having one child but the last, numbered from 0.
+     */
+    static NaryTreeNode<Integer> chain(final int length) {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        NaryTreeNode<Integer> last = root;
+        for (int i = 1; i < length; i++) {
+            final NaryTreeNode<Integer> next = new NaryTreeNode<>(i);
+            last.add(next);
+            last = next;
+        }
+        return root;
+    }
+
+    /**
+     * A root 0 having a given number of leaves, numbered from 1.
+     */
+    static NaryTreeNode<Integer> wide(final int width) {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        for (int i = 1; i <= width; i++) {
+            root.appendFresh(new NaryTreeNode<>(i));
+        }
+        return root;
+    }
+}
@@ -0,0 +1,204 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeDiffTest {
+    private static void assertPatchReaches(final NaryTree<String> source, final NaryTree<String> target) {
+        final TreePatch<String> patch = TreeDiff.diff(source, target);
+        source.apply(patch);
+        assertEquals(target.generateText(), source.generateText());
+    }
+
+    @Test
+    void diffOfEqualTreesIsEmpty() {
+        assertTrue(TreeDiff.diff(TestTrees.letters(), TestTrees.letters()).isEmpty());
+    }
+
+    @Test
+    void update() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        target.getRootNode().getChild(0).getChild(0).getChild(0).setValue("Z");
+        final TreePatch<String> patch = TreeDiff.diff(source, target);
+        assertEquals(1, patch.size());
+        assertEquals(TreeEdit.Kind.UPDATE, patch.getEdits().get(0).getKind());
+        assertArrayEquals(new int[]{0, 0, 0}, patch.getEdits().get(0).getPath());
+        TreeDiffTest.assertPatchReaches(source, target);
+    }
+
+    @Test
+    void insertAndDelete() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        target.getRootNode().getChild(1).add(0, new NaryTreeNode<>("X"));
+        target.getRootNode().getChild(0).getChild(0).removeChild(0);
+        final TreePatch<String> patch = TreeDiff.diff(source, target);
+        assertEquals(List.of(TreeEdit.Kind.INSERT, TreeEdit.Kind.DELETE),
+                     patch.getEdits().stream().map(TreeEdit::getKind).sorted().toList());
+        TreeDiffTest.assertPatchReaches(source, target);
+    }
+
+    @Test
+    void moveAcrossParents() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        final INaryTreeNode<String> d = target.getRootNode().getChild(0).removeChild(0);
+        target.getRootNode().getChild(1).add(d);
+        final TreePatch<String> patch = TreeDiff.diff(source, target);
+        assertEquals(1, patch.size());
+        assertEquals(TreeEdit.Kind.MOVE, patch.getEdits().get(0).getKind());
+        TreeDiffTest.assertPatchReaches(source, target);
+    }
+
+    @Test
+    void reorderSiblings() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        final INaryTreeNode<String> b = target.getRootNode().removeChild(0);
+        target.getRootNode().add(b);
+        TreeDiffTest.assertPatchReaches(source, target);
+    }
+
+    @Test
+    void randomEdits() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final NaryTree<String> source = TreeDiffTest.createRandomTree(random, 60);
+            final NaryTree<String> target = TreeDiffTest.copy(source);
+            TreeDiffTest.mutate(random, target, 1 + random.nextInt(8));
+            TreeDiffTest.assertPatchReaches(source, target);
+        }
+    }
+
+    @Test
+    void serializedPatch() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        target.getRootNode().setValue("root");
+        target.getRootNode().getChild(1).add(0, new NaryTreeNode<>("X"));
+        target.getRootNode().getChild(1).getChild(0).add("Y");
+        target.getRootNode().getChild(0).removeChild(1);
+        final INaryTreeNode<String> d = target.getRootNode().getChild(0).removeChild(0);
+        target.getRootNode().add(d);
+        final ValueSerializer<String> serializer = ValueSerializer.json(String.class);
+        final byte[] bytes = TreeDiff.diff(source, target).toBytes(serializer);
+        assertTrue(bytes.length < target.toJson().length());
+        source.apply(TreePatch.fromBytes(bytes, serializer));
+        assertEquals(target.generateText(), source.generateText());
+    }
+
+    @Test
+    void nodesWithoutPositionalEditsAreNotPatched() {
+        final KeyedNaryTreeNode<String, String> root = KeyedNaryTreeNode.byValue("A", Comparator.naturalOrder());
+        root.add("B");
+        root.add("C");
+        final NaryTree<String> keyed = new NaryTree<>(root);
+        final TreePatch<String> patch = new TreePatch<>(List.of(
+                TreeEdit.update(new int[]{0}, "B2"), TreeEdit.insert(new int[]{}, 0, new NaryTreeNode<>("X"))));
+        assertThrows(UnsupportedOperationException.class, () -> keyed.apply(patch));
+        assertEquals("[A] ([B], [C])", keyed.generateText());
+        final NaryTree<String> plain = new NaryTree<>("A");
+        plain.add("B");
+        plain.add("C");
+        plain.apply(patch);
+        assertEquals("[A] ([X], [B2], [C])", plain.generateText());
+    }
+
+    @Test
+    void malformedPatchesAreRejected() {
+        final NaryTree<String> source = TestTrees.letters();
+        final NaryTree<String> target = TestTrees.letters();
+        target.getRootNode().setValue("root");
+        target.getRootNode().getChild(1).add(0, new NaryTreeNode<>("X"));
+        target.getRootNode().getChild(1).getChild(0).add("Y");
+        target.getRootNode().add(target.getRootNode().getChild(0).removeChild(0));
+        final ValueSerializer<String> serializer = ValueSerializer.json(String.class);
+        final byte[] bytes = TreeDiff.diff(source, target).toBytes(serializer);
+        for (int length = 0; length < bytes.length; length++) {
+            final byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> TreePatch.fromBytes(truncated, serializer));
+        }
+        final Random random = new Random(42);
+        for (int round = 0; round < 2_000; round++) {
+            final byte[] corrupted = bytes.clone();
+            corrupted[random.nextInt(corrupted.length)] = (byte) random.nextInt(256);
+            try {
+                TreePatch.fromBytes(corrupted, serializer);
+            } catch (final IllegalArgumentException e) {
+                // rejected: any other exception fails the test
+            }
+        }
+        // version, 1 edit, then an unknown kind
+        assertThrows(IllegalArgumentException.class,
+                     () -> TreePatch.fromBytes(new byte[]{1, 1, 9, 0}, serializer));
+        // version, then a negative count
+        assertThrows(IllegalArgumentException.class,
+                     () -> TreePatch.fromBytes(new byte[]{1, -1, -1, -1, -1, 15}, serializer));
+        // version, then Integer.MAX_VALUE edits which are not there
+        assertThrows(IllegalArgumentException.class,
+                     () -> TreePatch.fromBytes(new byte[]{1, -1, -1, -1, -1, 7}, serializer));
+        // version, 1 update of a path of Integer.MAX_VALUE indexes which are not there
+        assertThrows(IllegalArgumentException.class,
+                     () -> TreePatch.fromBytes(new byte[]{1, 1, 3, -1, -1, -1, -1, 7}, serializer));
+        // version, 1 update of the root to a value of Integer.MAX_VALUE bytes which are not there
+        assertThrows(IllegalArgumentException.class,
+                     () -> TreePatch.fromBytes(new byte[]{1, 1, 3, 0, -1, -1, -1, -1, 7}, serializer));
+    }
+
+    private static NaryTree<String> createRandomTree(final Random random, final int size) {
+        final NaryTree<String> tree = new NaryTree<>("root");
+        final List<INaryTreeNode<String>> nodes = new ArrayList<>(List.of(tree.getRootNode()));
+        for (int i = 0; i < size; i++) {
+            final NaryTreeNode<String> node = new NaryTreeNode<>(String.valueOf(random.nextInt(size / 3)));
+            nodes.get(random.nextInt(nodes.size())).add(node);
+            nodes.add(node);
+        }
+        return tree;
+    }
+
+    private static NaryTree<String> copy(final NaryTree<String> tree) {
+        final NaryTree<String> copy = new NaryTree<>(tree.getRoot());
+        TreeDiff.diff(copy, tree).getEdits().forEach(edit -> assertEquals(TreeEdit.Kind.INSERT, edit.getKind()));
+        copy.apply(TreeDiff.diff(copy, tree));
+        return copy;
+    }
+
+    private static void mutate(final Random random, final NaryTree<String> tree, final int count) {
+        for (int i = 0; i < count; i++) {
+            final List<INaryTreeNode<String>> nodes = new ArrayList<>();
+            final Deque<INaryTreeNode<String>> stack = new ArrayDeque<>();
+            stack.push(tree.getRootNode());
+            while (!stack.isEmpty()) {
+                final INaryTreeNode<String> node = stack.pop();
+                nodes.add(node);
+                node.getChildren().forEach(stack::push);
+            }
+            final INaryTreeNode<String> node = nodes.get(random.nextInt(nodes.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> node.setValue("v" + random.nextInt(100));
+                case 1 -> node.add(random.nextInt(node.getChildrenCount() + 1), new NaryTreeNode<>("new" + i));
+                case 2 -> {
+                    if (!node.isLeaf()) {
+                        node.removeChild(random.nextInt(node.getChildrenCount()));
+                    }
+                }
+                default -> {
+                    if (!node.isLeaf()) {
+                        final INaryTreeNode<String> moved = node.removeChild(random.nextInt(node.getChildrenCount()));
+                        tree.getRootNode().add(moved);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeSearchTest {
+    private static List<Integer> values(final List<INaryTree<Integer>> nodes) {
+        final List<Integer> values = new ArrayList<>();
+        for (final INaryTree<Integer> node : nodes) {
+            values.add(((INaryTreeNode<Integer>) node).getValue());
+        }
+        return values;
+    }
+
+    private static List<Integer> visited(final TreeSearch<Integer> search) {
+        return TreeSearchTest.values(search.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void strategies() {
+        final TreeSearch<Integer> search = TestTrees.numbers().search();
+        assertEquals(TreeSearch.Strategy.DEPTH_FIRST, search.getStrategy());
+        assertEquals(List.of(5, 3, 9, 2, 8, 4, 1, 7, 6), TreeSearchTest.visited(search));
+        assertEquals(List.of(5, 3, 8, 1, 9, 2, 4, 7, 6), TreeSearchTest.visited(search.breadthFirst()));
+        assertEquals(List.of(5, 8, 4, 3, 9, 2, 1, 7, 6),
+                     TreeSearchTest.visited(search.bestFirst(Comparator.naturalOrder())));
+    }
+
+    @Test
+    void pruning() {
+        final TreeSearch<Integer> search = TestTrees.numbers().search().pruning(value -> value != 3);
+        assertEquals(List.of(5, 8, 4, 1, 7, 6), TreeSearchTest.visited(search));
+        assertEquals(List.of(5, 8, 1, 4, 7, 6), TreeSearchTest.visited(search.breadthFirst()));
+        assertEquals(List.of(5, 8, 1, 4), TreeSearchTest.visited(search.pruning(value -> value != 7)
+                                                                   .pruning(value -> value != 6).breadthFirst()));
+        assertEquals(List.of(), TreeSearchTest.visited(search.pruning(value -> value != 5)));
+        assertNull(search.findFirst(value -> value == 9));
+    }
+
+    @Test
+    void findFirst() {
+        final NaryTree<Integer> tree = TestTrees.numbers();
+        assertEquals(3, ((INaryTreeNode<Integer>) tree.findFirst(value -> value < 5)).getValue());
+        assertEquals(1, ((INaryTreeNode<Integer>) tree.search().breadthFirst().findFirst(value -> value < 3))
+                .getValue());
+        assertNull(tree.findFirst(value -> value > 10));
+        final INaryTree<Integer> eight = tree.findFirst(value -> value == 8);
+        assertSame(tree.getRootNode().getChild(1), eight);
+    }
+
+    @Test
+    void findAll() {
+        final NaryTree<Integer> tree = TestTrees.numbers();
+        assertEquals(List.of(2, 8), TreeSearchTest.values(tree.findAll(value -> value % 2 == 0, 2)));
+        assertEquals(List.of(2, 8, 4, 6), TreeSearchTest.values(tree.findAll(value -> value % 2 == 0, 10)));
+        assertEquals(List.of(8, 4, 2), TreeSearchTest.values(
+                tree.search().bestFirst(Comparator.naturalOrder()).findAll(value -> value % 2 == 0, 3)));
+        assertEquals(List.of(), tree.findAll(value -> true, 0));
+    }
+
+    @Test
+    void searchStopsEarly() {
+        final AtomicInteger tested = new AtomicInteger();
+        final NaryTree<Integer> tree = TestTrees.numbers();
+        tree.findAll(value -> tested.incrementAndGet() > 0, 3);
+        assertEquals(3, tested.get());
+    }
+
+    @Test
+    void topK() {
+        final NaryTree<Integer> tree = TestTrees.numbers();
+        assertEquals(List.of(9, 8, 7), TreeSearchTest.values(tree.topK(Comparator.naturalOrder(), 3)));
+        assertEquals(List.of(1, 2), TreeSearchTest.values(tree.topK(Comparator.reverseOrder(), 2)));
+        assertEquals(9, tree.topK(Comparator.naturalOrder(), 20).size());
+        assertEquals(List.of(8, 7, 6), TreeSearchTest.values(
+                tree.search().pruning(value -> value != 3).topK(Comparator.naturalOrder(), 3)));
+        assertEquals(List.of(), tree.topK(Comparator.naturalOrder(), 0));
+    }
+
+    @Test
+    void topKKeepsFirstVisitedAmongEquals() {
+        final NaryTree<String> tree = new NaryTree<>("root");
+        tree.add("bb");
+        tree.add("aa");
+        tree.add("c");
+        final List<INaryTree<String>> longest = tree.topK(Comparator.comparingInt(String::length), 2);
+        assertEquals("root", ((INaryTreeNode<String>) longest.get(0)).getValue());
+        assertEquals("bb", ((INaryTreeNode<String>) longest.get(1)).getValue());
+    }
+
+    @Test
+    void searchOnDeepTrees() {
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        NaryTreeNode<Integer> node = root;
+        for (int i = 1; i < 100_000; i++) {
+            final NaryTreeNode<Integer> child = new NaryTreeNode<>(i);
+            node.add(child);
+            node = child;
+        }
+        assertEquals(99_999, ((INaryTreeNode<Integer>) root.findFirst(value -> value == 99_999)).getValue());
+        assertEquals(List.of(99_999, 99_998), TreeSearchTest.values(root.topK(Comparator.naturalOrder(), 2)));
+        assertEquals(100_000, root.search().bestFirst(Comparator.naturalOrder()).stream().count());
+    }
+}
@@ -0,0 +1,106 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeTransformationsTest {
+    private static NaryTreeNode<Integer> createRandomTree(final int size) {
+        final Random random = new Random(7);
+        final NaryTreeNode<Integer> root = new NaryTreeNode<>(0);
+        final List<NaryTreeNode<Integer>> nodes = new ArrayList<>(List.of(root));
+        for (int i = 1; i < size; i++) {
+            final NaryTreeNode<Integer> node = new NaryTreeNode<>(i);
+            nodes.get(random.nextInt(nodes.size())).add(node);
+            nodes.add(node);
+        }
+        return root;
+    }
+
+    @Test
+    void map() {
+        final INaryTree<String> tree = TestTrees.letters();
+        final INaryTree<String> mapped = tree.map(String::toLowerCase);
+        assertEquals("[a] ([b] ([d] ([g]), [e]), [c] ([f]))", mapped.generateText());
+        assertEquals("[A] ([B] ([D] ([G]), [E]), [C] ([F]))", tree.generateText());
+    }
+
+    @Test
+    void filter() {
+        final INaryTree<String> tree = TestTrees.letters();
+        final List<String> tested = new ArrayList<>();
+        final INaryTree<String> filtered = tree.filter(value -> {
+            tested.add(value);
+            return !value.equals("D");
+        });
+        assertEquals("[A] ([B] ([E]), [C] ([F]))", filtered.generateText());
+        assertFalse(tested.contains("G"));
+        assertNull(tree.filter(value -> false));
+    }
+
+    @Test
+    void fold() {
+        final INaryTree<String> tree = TestTrees.letters();
+        final Integer height = tree.fold((String value, List<Integer> heights) ->
+                                                 1 + heights.stream().mapToInt(h -> h).max().orElse(0));
+        assertEquals(tree.getHeight(), height);
+        final String postfix = tree.fold((String value, List<String> children) -> String.join("", children) + value);
+        assertEquals(String.join("", tree.toPostfixList()), postfix);
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        final INaryTree<Integer> tree = TreeTransformationsTest.createRandomTree(50_000);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(tree.map(value -> value * 2).toPrefixList(), tree.map(value -> value * 2, pool).toPrefixList());
+            assertEquals(tree.filter(value -> (value == 0) || ((value % 5) != 0)).toPrefixList(),
+                         tree.filter(value -> (value == 0) || ((value % 5) != 0), pool).toPrefixList());
+            final long sum = tree.fold((Integer value, List<Long> sums) ->
+                                               value + sums.stream().mapToLong(s -> s).sum(), pool);
+            assertEquals(49_999L * 50_000L / 2, sum);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void wideNodes() {
+        final NaryTreeNode<Integer> root = TestTrees.wide(100_000);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final List<INaryTree<Integer>> copies = List.of(root.map(value -> value + 1),
+                                                            root.map(value -> value + 1, pool),
+                                                            root.filter(value -> true));
+            for (final INaryTree<Integer> copy : copies) {
+                final INaryTreeNode<Integer> copyRoot = copy.getRootNode();
+                assertEquals(100_000, copyRoot.getChildrenCount());
+                final int hash = copyRoot.hashCode();
+                copyRoot.getChild(99_999).setValue(0);
+                assertNotEquals(hash, copyRoot.hashCode());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void deepTrees() {
+        final INaryTree<Integer> tree = TestTrees.chain(200_000);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(200_000, (int) tree.map(value -> value + 1).fold((Integer value, List<Integer> sizes) ->
+                                                                               1 + sizes.stream().mapToInt(s -> s).sum()));
+            assertEquals(1, (int) tree.map(value -> value + 1, pool).getRoot());
+            assertEquals(100, (int) tree.filter(value -> value < 100, pool).fold(
+                    (Integer value, List<Integer> sizes) -> 1 + sizes.stream().mapToInt(s -> s).sum(), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
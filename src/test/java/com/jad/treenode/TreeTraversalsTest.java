@@ -0,0 +1,85 @@
+package com.jad.treenode;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeTraversalsTest {
+    /**
+     * An infinite binary tree, recording the longest value whose children were requested.
+     */
+    private static LazyNaryTreeNode<String> infiniteTree(final AtomicInteger deepestLoad) {
+        return new LazyNaryTreeNode<>("", value -> {
+            deepestLoad.accumulateAndGet(value.length(), Math::max);
+            return List.of(value + "0", value + "1");
+        });
+    }
+
+    private static <E> List<E> toList(final Iterator<E> iterator) {
+        final List<E> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    @Test
+    void levels() {
+        assertEquals(List.of(List.of("A"), List.of("B", "C"), List.of("D", "E", "F"), List.of("G")),
+                     TestTrees.letters().levels().collect(Collectors.toList()));
+        assertEquals(List.of(List.of("F")), new NaryTreeNode<>("F").levels().collect(Collectors.toList()));
+    }
+
+    @Test
+    void levelsAreLazy() {
+        final AtomicInteger deepestLoad = new AtomicInteger(-1);
+        final List<List<String>> levels = TreeTraversalsTest.infiniteTree(deepestLoad).levels().limit(3)
+                .collect(Collectors.toList());
+        assertEquals(List.of("00", "01", "10", "11"), levels.get(2));
+        assertEquals(1, deepestLoad.get());
+    }
+
+    @Test
+    void byWidthIterator() {
+        final NaryTree<String> tree = TestTrees.letters();
+        assertEquals(List.of("A"), TreeTraversalsTest.toList(tree.byWidthIterator(0)));
+        assertEquals(List.of("A", "B", "C", "D", "E", "F"), TreeTraversalsTest.toList(tree.byWidthIterator(2)));
+        assertEquals(tree.toByWidthList(), TreeTraversalsTest.toList(tree.byWidthIterator(Integer.MAX_VALUE)));
+        final Iterator<String> iterator = tree.byWidthIterator(0);
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertThrows(IllegalArgumentException.class, () -> tree.byWidthIterator(-1));
+    }
+
+    @Test
+    void prefixIterator() {
+        final NaryTree<String> tree = TestTrees.letters();
+        assertEquals(List.of("A"), TreeTraversalsTest.toList(tree.prefixIterator(0)));
+        assertEquals(List.of("A", "B", "D", "E", "C", "F"), TreeTraversalsTest.toList(tree.prefixIterator(2)));
+        assertEquals(tree.toPrefixList(), TreeTraversalsTest.toList(tree.prefixIterator(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void depthBoundedIteratorsDoNotTouchDeeperNodes() {
+        final AtomicInteger deepestLoad = new AtomicInteger(-1);
+        final LazyNaryTreeNode<String> root = TreeTraversalsTest.infiniteTree(deepestLoad);
+        assertEquals(15, TreeTraversalsTest.toList(root.byWidthIterator(3)).size());
+        assertEquals(2, deepestLoad.get());
+        assertEquals(List.of("", "0", "00", "01", "1", "10", "11"), TreeTraversalsTest.toList(root.prefixIterator(2)));
+        assertEquals(2, deepestLoad.get());
+    }
+
+    @Test
+    void deepTrees() {
+        final NaryTreeNode<Integer> root = TestTrees.chain(100_000);
+        assertEquals(100_000, root.levels().count());
+        assertEquals(100_000, TreeTraversalsTest.toList(root.prefixIterator(Integer.MAX_VALUE)).size());
+        assertEquals(100_000, root.toByWidthList().size());
+    }
+}
@@ -0,0 +1,226 @@
+package com.jad.treenode;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueSerializersTest {
+    private static byte[] serialize(final Object object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(final byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) input.readObject();
+        }
+    }
+
+    private static <E> E roundTrip(final ValueSerializer<E> serializer, final E value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.write(new DataOutputStream(bytes), value);
+        return serializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Rebuilds an integer tree from the output of {@link INaryTree#toJson()}.
+     */
+    private static NaryTree<Integer> fromJson(final String json) {
+        final NaryTree<Integer> tree = new NaryTree<>();
+        final Deque<JsonObject> objects = new ArrayDeque<>();
+        final Deque<INaryTreeNode<Integer>> nodes = new ArrayDeque<>();
+        objects.push(JsonParser.parseString(json).getAsJsonObject());
+        nodes.push(tree.getRootNode());
+        while (!objects.isEmpty()) {
+            final JsonObject object = objects.pop();
+            final INaryTreeNode<Integer> node = nodes.pop();
+            node.setValue(object.get(NaryTreeNodeUtils.JSON_VALUE_KEY).getAsInt());
+            final JsonArray children = object.getAsJsonArray(NaryTreeNodeUtils.JSON_CHILDREN_KEY);
+            if (children != null) {
+                for (final JsonElement child : children) {
+                    final NaryTreeNode<Integer> childNode = new NaryTreeNode<>();
+                    node.add(childNode);
+                    objects.push(child.getAsJsonObject());
+                    nodes.push(childNode);
+                }
+            }
+        }
+        return tree;
+    }
+
+    @Test
+    void builtInSerializers() throws IOException {
+        assertEquals("été → ok", ValueSerializersTest.roundTrip(ValueSerializers.string(), "été → ok"));
+        assertEquals("", ValueSerializersTest.roundTrip(ValueSerializers.string(), ""));
+        assertNull(ValueSerializersTest.roundTrip(ValueSerializers.string(), null));
+        assertEquals(-42, ValueSerializersTest.roundTrip(ValueSerializers.integer(), -42));
+        assertNull(ValueSerializersTest.roundTrip(ValueSerializers.integer(), null));
+        assertEquals(Long.MIN_VALUE, ValueSerializersTest.roundTrip(ValueSerializers.longInteger(), Long.MIN_VALUE));
+        assertEquals(0.5, ValueSerializersTest.roundTrip(ValueSerializers.doubles(), 0.5));
+        assertEquals(false, ValueSerializersTest.roundTrip(ValueSerializers.booleans(), false));
+        assertNull(ValueSerializersTest.roundTrip(ValueSerializers.booleans(), null));
+        assertArrayEquals(new byte[]{1, 2, 3}, ValueSerializersTest.roundTrip(ValueSerializers.bytes(), new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void registry() {
+        assertSame(ValueSerializers.string(), ValueSerializers.find(String.class));
+        assertNull(ValueSerializers.find(BigInteger.class));
+        assertNotNull(ValueSerializers.find(Point.class));
+    }
+
+    @Test
+    void treeRoundTrip() throws IOException, ClassNotFoundException {
+        final NaryTree<String> tree = TestTrees.letters();
+        tree.getRootNode().getChild(1).add((String) null);
+        final NaryTree<String> copy = ValueSerializersTest.deserialize(ValueSerializersTest.serialize(tree));
+        assertEquals(tree.toPrefixList(), copy.toPrefixList());
+        assertEquals(tree.generateText(), copy.generateText());
+        copy.add("E");
+        assertTrue(copy.contains("E"));
+    }
+
+    @Test
+    void nodeRoundTrip() throws IOException, ClassNotFoundException {
+        final INaryTreeNode<String> b = TestTrees.letters().getRootNode().getChild(0);
+        final NaryTreeNode<String> copy = ValueSerializersTest.deserialize(ValueSerializersTest.serialize(b));
+        assertEquals(b, copy);
+    }
+
+    @Test
+    void mixedValues() throws IOException, ClassNotFoundException {
+        final NaryTree<Object> tree = new NaryTree<>("root");
+        tree.add(7);
+        tree.add(new Point(1, 2));
+        tree.add(new BigInteger("123456789012345678901234567890"));
+        tree.add(new Point(3, 4));
+        tree.add("leaf");
+        final NaryTree<Object> copy = ValueSerializersTest.deserialize(ValueSerializersTest.serialize(tree));
+        assertEquals(tree.toPrefixList(), copy.toPrefixList());
+    }
+
+    @Test
+    void unserializableValuesAreRejected() {
+        final NaryTree<Object> tree = new NaryTree<>("root");
+        tree.add(new Object());
+        assertThrows(NotSerializableException.class, () -> ValueSerializersTest.serialize(tree));
+    }
+
+    @Test
+    void deepTreeRoundTrip() throws IOException, ClassNotFoundException {
+        final NaryTree<Integer> tree = new NaryTree<>(TestTrees.chain(100_000));
+        final NaryTree<Integer> copy = ValueSerializersTest.deserialize(ValueSerializersTest.serialize(tree));
+        assertEquals(100_000, copy.levels().count());
+        assertEquals(tree.getRootNode(), copy.getRootNode());
+    }
+
+    @Test
+    void wideTreeRoundTrip() throws IOException, ClassNotFoundException {
+        final NaryTreeNode<Integer> root = TestTrees.wide(99_999);
+        final NaryTree<Integer> tree = new NaryTree<>(root);
+        final NaryTree<Integer> copy = ValueSerializersTest.deserialize(ValueSerializersTest.serialize(tree));
+        assertEquals(99_999, copy.getRootNode().getChildrenCount());
+        assertEquals(tree.getRootNode(), copy.getRootNode());
+        final ValueSerializer<Integer> serializer = ValueSerializers.integer();
+        final TreePatch<Integer> patch = new TreePatch<>(List.of(TreeEdit.insert(new int[]{}, 0, root)));
+        final NaryTree<Integer> patched = new NaryTree<>(-1);
+        patched.apply(TreePatch.fromBytes(patch.toBytes(serializer), serializer));
+        assertEquals(root, patched.getRootNode().getChild(0));
+    }
+
+    @Test
+    void durableTreesAreNotSerializable() throws IOException {
+        try (DurableNaryTree<String> tree = DurableNaryTree.open(Files.createTempDirectory("durable"),
+                                                                 ValueSerializers.string())) {
+            assertThrows(NotSerializableException.class, () -> ValueSerializersTest.serialize(tree));
+        }
+    }
+
+    /**
+     * Compares the serialized form with a toJson() round trip; sizes are asserted, timings are not.
+     */
+    @Test
+    void comparisonWithJson() throws IOException, ClassNotFoundException {
+        final NaryTree<Integer> tree = new NaryTree<>(TestTrees.balanced(4, 8));
+        final String json = tree.toJson();
+        final NaryTree<Integer> fromJson = ValueSerializersTest.fromJson(json);
+        final byte[] bytes = ValueSerializersTest.serialize(tree);
+        final NaryTree<Integer> deserialized = ValueSerializersTest.deserialize(bytes);
+        assertEquals(tree.toPrefixList(), fromJson.toPrefixList());
+        assertEquals(tree.toPrefixList(), deserialized.toPrefixList());
+        assertTrue(bytes.length < json.length() / 2, bytes.length + " bytes, JSON " + json.length() + " chars");
+    }
+
+    static final class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int x;
+        private final int y;
+
+        Point(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return (other instanceof Point point) && (point.x == this.x) && (point.y == this.y);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.x, this.y);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(new int[]{this.x, this.y});
+        }
+    }
+
+    public static final class PointSerializerProvider implements ValueSerializerProvider {
+        @Override
+        public Map<Class<?>, ValueSerializer<?>> getSerializers() {
+            return Map.of(Point.class, new ValueSerializer<Point>() {
+                @Override
+                public void write(final DataOutput output, final Point value) throws IOException {
+                    output.writeInt(value.x);
+                    output.writeInt(value.y);
+                }
+
+                @Override
+                public Point read(final DataInput input) throws IOException {
+                    return new Point(input.readInt(), input.readInt());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.jad.treenode.workload;
+
+import java.util.Random;
+
+/**
+ * A distribution of non-negative integers, read from the workload configuration.
+ * <ul>
+ *     <li>{@code fixed}: always {@code value};</li>
+ *     <li>{@code uniform}: uniformly between {@code min} and {@code max}, inclusive;</li>
+ *     <li>{@code geometric}: a geometric distribution of mean {@code mean}, capped at {@code max} if positive;</li>
+ *     <li>{@code zipf}: a rank between 0 and {@code max} - 1, rank r having a weight of 1 / (r + 1)^{@code exponent}.</li>
+ * </ul>
+ * Instances are immutable once sampled; sampling is thread-safe.
+ */
+final class Distribution {
+    private String type = "fixed";
+    private int value;
+    private int min;
+    private int max;
+    private double mean;
+    private double exponent = 1.0;
+
+    /**
+     * The cumulative weights of the ranks of a zipf distribution, built on first use.
+     */
+    private transient volatile double[] cumulativeWeights;
+
+    static Distribution fixed(final int value) {
+        final Distribution distribution = new Distribution();
+        distribution.value = value;
+        return distribution;
+    }
+
+    static Distribution uniform(final int min, final int max) {
+        final Distribution distribution = new Distribution();
+        distribution.type = "uniform";
+        distribution.min = min;
+        distribution.max = max;
+        return distribution;
+    }
+
+    static Distribution geometric(final double mean, final int max) {
+        final Distribution distribution = new Distribution();
+        distribution.type = "geometric";
+        distribution.mean = mean;
+        distribution.max = max;
+        return distribution;
+    }
+
+    static Distribution zipf(final int max, final double exponent) {
+        final Distribution distribution = new Distribution();
+        distribution.type = "zipf";
+        distribution.max = max;
+        distribution.exponent = exponent;
+        return distribution;
+    }
+
+    /**
+     * Checks the parameters of the distribution.
+     *
+     * @throws IllegalArgumentException if the parameters are invalid for the type
+     */
+    void validate() {
+        switch (this.type) {
+            case "fixed" -> Distribution.check(this.value >= 0, "fixed value must not be negative");
+            case "uniform" -> Distribution.check((this.min >= 0) && (this.min <= this.max), "uniform needs 0 <= min <= max");
+            case "geometric" -> Distribution.check(this.mean >= 0, "geometric mean must not be negative");
+            case "zipf" -> Distribution.check((this.max > 0) && (this.exponent >= 0),
+                                              "zipf needs a positive max and a non-negative exponent");
+            default -> throw new IllegalArgumentException("Unknown distribution type: " + this.type);
+        }
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    int sample(final Random random) {
+        switch (this.type) {
+            case "fixed":
+                return this.value;
+            case "uniform":
+                return this.min + random.nextInt(this.max - this.min + 1);
+            case "geometric":
+                if (this.mean == 0) {
+                    return 0;
+                }
+                final double p = 1.0 / (this.mean + 1.0);
+                final int sample = (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+                return (this.max > 0) ? Math.min(sample, this.max) : sample;
+            case "zipf":
+                return this.sampleZipf(random);
+            default:
+                throw new IllegalArgumentException("Unknown distribution type: " + this.type);
+        }
+    }
+
+    private int sampleZipf(final Random random) {
+        double[] weights = this.cumulativeWeights;
+        if (weights == null) {
+            weights = new double[this.max];
+            double total = 0;
+            for (int rank = 0; rank < this.max; rank++) {
+                total += 1.0 / Math.pow(rank + 1, this.exponent);
+                weights[rank] = total;
+            }
+            this.cumulativeWeights = weights;
+        }
+        final double target = random.nextDouble() * weights[weights.length - 1];
+        int low = 0;
+        int high = weights.length - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (weights[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return switch (this.type) {
+            case "fixed" -> "fixed(" + this.value + ")";
+            case "uniform" -> "uniform(" + this.min + ", " + this.max + ")";
+            case "geometric" -> "geometric(" + this.mean + ", " + this.max + ")";
+            case "zipf" -> "zipf(" + this.max + ", " + this.exponent + ")";
+            default -> this.type;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.jad.treenode.workload;
+
+/**
+ * A histogram of latencies in nanoseconds with log-linear buckets: exact below 64ns,
+ * then 32 buckets per power of two, so a percentile is off by less than 1/32 of its value.
+ * Recording does not allocate; a histogram is confined to one thread and merged afterwards.
+ */
+final class LatencyHistogram {
+    private static final int LINEAR_LIMIT = 64;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+    private static final int FIRST_EXPONENT = 6;
+    private static final int BUCKET_COUNT = LatencyHistogram.LINEAR_LIMIT
+            + ((63 - LatencyHistogram.FIRST_EXPONENT) * LatencyHistogram.SUB_BUCKETS);
+
+    private final long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    static int bucketOf(final long nanos) {
+        if (nanos < LatencyHistogram.LINEAR_LIMIT) {
+            return (int) Math.max(nanos, 0);
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (exponent - LatencyHistogram.SUB_BUCKET_BITS)) & (LatencyHistogram.SUB_BUCKETS - 1);
+        return LatencyHistogram.LINEAR_LIMIT + ((exponent - LatencyHistogram.FIRST_EXPONENT) * LatencyHistogram.SUB_BUCKETS)
+                + subBucket;
+    }
+
+    /**
+     * @param bucket - a bucket index
+     * @return the largest latency recorded in the bucket
+     */
+    static long highestValueOf(final int bucket) {
+        if (bucket < LatencyHistogram.LINEAR_LIMIT) {
+            return bucket;
+        }
+        final int exponent = ((bucket - LatencyHistogram.LINEAR_LIMIT) / LatencyHistogram.SUB_BUCKETS) + LatencyHistogram.FIRST_EXPONENT;
+        final long subBucket = (bucket - LatencyHistogram.LINEAR_LIMIT) % LatencyHistogram.SUB_BUCKETS;
+        final long lowest = (1L << exponent) + (subBucket << (exponent - LatencyHistogram.SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - LatencyHistogram.SUB_BUCKET_BITS)) - 1;
+    }
+
+    void record(final long nanos) {
+        this.counts[LatencyHistogram.bucketOf(nanos)]++;
+        this.count++;
+        this.sum += nanos;
+        this.max = Math.max(this.max, nanos);
+    }
+
+    void merge(final LatencyHistogram other) {
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    long getCount() {
+        return this.count;
+    }
+
+    long getMax() {
+        return this.max;
+    }
+
+    double getMean() {
+        return (this.count == 0) ? 0 : ((double) this.sum / this.count);
+    }
+
+    /**
+     * @param percentile - the percentile, between 0 and 100
+     * @return the latency under which this percentile of the recorded latencies fall, or 0 if nothing was recorded
+     */
+    long getPercentile(final double percentile) {
+        if ((percentile < 0) || (percentile > 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (this.count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * this.count));
+        long seen = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), this.max);
+            }
+        }
+        return this.max;
+    }
+}
@@ -0,0 +1,77 @@
+package com.jad.treenode.workload;
+
+import com.jad.treenode.INaryTree;
+
+/**
+ * The operations a workload replays, named as the INaryTree methods they call.
+ */
+enum Operation {
+    ADD("add", true),
+    REMOVE("remove", true),
+    CONTAINS("contains", false),
+    GET_NODE_FROM_ELEMENT("getNodeFromElement", false),
+    SIZE("size", false),
+    GET_HEIGHT("getHeight", false),
+    TO_PREFIX_LIST("toPrefixList", false),
+    TO_POSTFIX_LIST("toPostfixList", false),
+    TO_BY_WIDTH_LIST("toByWidthList", false),
+    ITERATE("iterator", false),
+    TO_JSON("toJson", false),
+    GENERATE_TEXT("generateText", false),
+    TO_PRETTY_TEXT("toPrettyText", false);
+
+    private final String name;
+    private final boolean mutating;
+
+    Operation(final String name, final boolean mutating) {
+        this.name = name;
+        this.mutating = mutating;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    boolean isMutating() {
+        return this.mutating;
+    }
+
+    static Operation fromName(final String name) {
+        for (final Operation operation : Operation.values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+    /**
+     * Runs a read-only operation.
+     *
+     * @param tree  - the tree
+     * @param value - the value looked up by contains and getNodeFromElement
+     * @return a number derived from the result, so that the call cannot be optimized away
+     */
+    long read(final INaryTree<Integer> tree, final Integer value) {
+        return switch (this) {
+            case CONTAINS -> tree.contains(value) ? 1 : 0;
+            case GET_NODE_FROM_ELEMENT -> (tree.getNodeFromElement(value) == null) ? 0 : 1;
+            case SIZE -> tree.size();
+            case GET_HEIGHT -> tree.getHeight();
+            case TO_PREFIX_LIST -> tree.toPrefixList().size();
+            case TO_POSTFIX_LIST -> tree.toPostfixList().size();
+            case TO_BY_WIDTH_LIST -> tree.toByWidthList().size();
+            case ITERATE -> {
+                long sum = 0;
+                for (final Integer element : tree) {
+                    sum += element;
+                }
+                yield sum;
+            }
+            case TO_JSON -> tree.toJson().length();
+            case GENERATE_TEXT -> tree.generateText().length();
+            case TO_PRETTY_TEXT -> tree.toPrettyText().length();
+            default -> throw new IllegalStateException(this.name + " is not a read operation");
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.jad.treenode.workload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The comparison of a candidate run with a baseline run.
+ * The candidate regresses if its throughput falls below the baseline by more than the tolerance,
+ * or if its p50 latency, p99 latency or allocated bytes per operation exceed the baseline by more than the tolerance.
+ * Per-operation figures are reported but do not gate: with few samples they are too noisy.
+ * Runs of different workloads (implementation, threads, trees, nodes per tree or locking) are not comparable:
+ * their figures are not compared at all.
+ */
+final class RunComparison {
+    private final List<String> report = new ArrayList<>();
+    private final List<String> regressions = new ArrayList<>();
+    private String mismatch;
+
+    private RunComparison() {
+    }
+
+    /**
+     * @param baseline  - the reference run
+     * @param candidate - the run to check
+     * @param tolerance - the accepted relative degradation, 0.10 for 10%
+     * @return the comparison
+     * @throws IllegalArgumentException if the tolerance is negative
+     */
+    static RunComparison compare(final WorkloadResult baseline, final WorkloadResult candidate, final double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance must not be negative");
+        }
+        final RunComparison comparison = new RunComparison();
+        final String baselineWorkload = RunComparison.describe(baseline);
+        final String candidateWorkload = RunComparison.describe(candidate);
+        if (!baselineWorkload.equals(candidateWorkload)) {
+            comparison.mismatch = "the runs replay different workloads: " + baselineWorkload + " vs " + candidateWorkload;
+            comparison.report.add("MISMATCH " + comparison.mismatch);
+            return comparison;
+        }
+        comparison.check("throughput (ops/s)", baseline.throughputPerSecond, candidate.throughputPerSecond, tolerance, false);
+        comparison.check("p50 latency (ns)", baseline.latency.p50Nanos, candidate.latency.p50Nanos, tolerance, true);
+        comparison.check("p99 latency (ns)", baseline.latency.p99Nanos, candidate.latency.p99Nanos, tolerance, true);
+        if ((baseline.allocatedBytesPerOperation >= 0) && (candidate.allocatedBytesPerOperation >= 0)) {
+            comparison.check("allocation (bytes/op)", baseline.allocatedBytesPerOperation,
+                             candidate.allocatedBytesPerOperation, tolerance, true);
+        }
+        for (final Map.Entry<String, WorkloadResult.OperationStatistics> entry : candidate.byOperation.entrySet()) {
+            final WorkloadResult.OperationStatistics before = baseline.byOperation.get(entry.getKey());
+            if (before != null) {
+                comparison.report.add(String.format("  %-20s p99 %dns -> %dns (%+.1f%%)", entry.getKey(),
+                                                    before.latency.p99Nanos, entry.getValue().latency.p99Nanos,
+                                                    RunComparison.change(before.latency.p99Nanos,
+                                                                         entry.getValue().latency.p99Nanos)));
+            }
+        }
+        return comparison;
+    }
+
+    private static String describe(final WorkloadResult result) {
+        return String.format("%s, %d thread(s), %d x %d nodes, %s locking", result.implementation, result.threads,
+                             result.trees, result.nodesPerTree, result.locking);
+    }
+
+    private static double change(final double before, final double after) {
+        return (before == 0) ? 0 : (100.0 * (after - before) / before);
+    }
+
+    private void check(final String metric, final double before, final double after, final double tolerance,
+                       final boolean lowerIsBetter) {
+        final boolean regressed = lowerIsBetter ? (after > before * (1 + tolerance)) : (after < before * (1 - tolerance));
+        final String line = String.format("%s: %.1f -> %.1f (%+.1f%%)", metric, before, after,
+                                          RunComparison.change(before, after));
+        this.report.add(regressed ? ("REGRESSION " + line) : line);
+        if (regressed) {
+            this.regressions.add(line);
+        }
+    }
+
+    /**
+     * @return True if both runs replayed the same workload, so that their figures were compared
+     */
+    boolean isComparable() {
+        return this.mismatch == null;
+    }
+
+    boolean hasRegressions() {
+        return !this.regressions.isEmpty();
+    }
+
+    List<String> getRegressions() {
+        return Collections.unmodifiableList(this.regressions);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(System.lineSeparator(), this.report);
+    }
+}
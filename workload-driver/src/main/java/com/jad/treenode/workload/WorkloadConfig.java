@@ -0,0 +1,154 @@
+package com.jad.treenode.workload;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The description of a workload, read from a JSON file.
+ * Every field has a default, so a configuration only lists what it changes:
+ * <pre>
+ *      {
+ *          "implementation": "NaryTree",
+ *          "trees": 4,
+ *          "nodesPerTree": 50000,
+ *          "fanOut": {"type": "geometric", "mean": 4, "max": 64},
+ *          "maxDepth": 16,
+ *          "valueSkew": 1.1,
+ *          "threads": 8,
+ *          "operationsPerThread": 200000,
+ *          "mix": {"contains": 40, "getNodeFromElement": 20, "add": 15, "remove": 15, "toPrefixList": 10}
+ *      }
+ * </pre>
+ */
+final class WorkloadConfig {
+    static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static final Set<String> BUILT_IN_IMPLEMENTATIONS = Set.of(
+            "NaryTree", "NaryTreeNode", "KeyedNaryTreeNode", "com.jad.treenode.NaryTree",
+            "com.jad.treenode.NaryTreeNode", "com.jad.treenode.KeyedNaryTreeNode");
+
+    /**
+     * The tree implementation: NaryTree, NaryTreeNode, KeyedNaryTreeNode,
+     * or the name of a class implementing INaryTree with a public constructor taking the root value.
+     */
+    String implementation = "NaryTree";
+
+    /**
+     * The seed of all the random choices, so that a workload can be replayed.
+     */
+    long seed = 42;
+
+    /**
+     * The number of trees, each operation targeting one of them uniformly.
+     */
+    int trees = 1;
+
+    int nodesPerTree = 10_000;
+
+    /**
+     * The distribution of the number of children of a generated node.
+     */
+    Distribution fanOut = Distribution.geometric(4, 64);
+
+    /**
+     * The depth of the deepest generated nodes, the roots being at depth 0.
+     */
+    int maxDepth = 16;
+
+    /**
+     * The exponent of the zipf distribution of the values looked up: 0 for uniform lookups.
+     */
+    double valueSkew = 1.0;
+
+    int threads = 4;
+
+    /**
+     * The number of unrecorded operations run by each thread before the measurement.
+     */
+    long warmupOperationsPerThread = 20_000;
+
+    long operationsPerThread = 100_000;
+
+    /**
+     * How operations are synchronized: readWrite (reads share a lock per tree, writes are exclusive),
+     * exclusive (one lock per tree for every operation) or none, for thread-safe implementations.
+     * The built-in implementations are not thread-safe: they cannot run a mix with additions or removals unlocked.
+     */
+    String locking = "readWrite";
+
+    /**
+     * The relative weights of the operations, by name.
+     */
+    Map<String, Double> mix = WorkloadConfig.defaultMix();
+
+    private static Map<String, Double> defaultMix() {
+        final Map<String, Double> mix = new LinkedHashMap<>();
+        mix.put(Operation.CONTAINS.getName(), 40.0);
+        mix.put(Operation.GET_NODE_FROM_ELEMENT.getName(), 15.0);
+        mix.put(Operation.ADD.getName(), 15.0);
+        mix.put(Operation.REMOVE.getName(), 15.0);
+        mix.put(Operation.TO_PREFIX_LIST.getName(), 5.0);
+        mix.put(Operation.TO_BY_WIDTH_LIST.getName(), 5.0);
+        mix.put(Operation.TO_JSON.getName(), 5.0);
+        return mix;
+    }
+
+    static WorkloadConfig read(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final WorkloadConfig config = WorkloadConfig.GSON.fromJson(reader, WorkloadConfig.class);
+            config.validate();
+            return config;
+        }
+    }
+
+    /**
+     * Checks the configuration.
+     *
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    void validate() {
+        if ((this.trees < 1) || (this.nodesPerTree < 1) || (this.threads < 1)) {
+            throw new IllegalArgumentException("trees, nodesPerTree and threads must be positive");
+        }
+        if ((this.maxDepth < 0) || ((this.maxDepth == 0) && (this.nodesPerTree > 1))) {
+            throw new IllegalArgumentException("maxDepth must be positive for trees of more than one node");
+        }
+        if ((this.warmupOperationsPerThread < 0) || (this.operationsPerThread < 1)) {
+            throw new IllegalArgumentException("operationsPerThread must be positive");
+        }
+        if (this.valueSkew < 0) {
+            throw new IllegalArgumentException("valueSkew must not be negative");
+        }
+        if (!"readWrite".equals(this.locking) && !"exclusive".equals(this.locking) && !"none".equals(this.locking)) {
+            throw new IllegalArgumentException("Unknown locking: " + this.locking);
+        }
+        this.fanOut.validate();
+        double total = 0;
+        boolean mutating = false;
+        for (final Map.Entry<String, Double> entry : this.mix.entrySet()) {
+            final Operation operation = Operation.fromName(entry.getKey());
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight for " + entry.getKey());
+            }
+            total += entry.getValue();
+            mutating |= operation.isMutating() && (entry.getValue() > 0);
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix must have a positive weight");
+        }
+        if (mutating && "none".equals(this.locking)
+                && WorkloadConfig.BUILT_IN_IMPLEMENTATIONS.contains(this.implementation)) {
+            throw new IllegalArgumentException(this.implementation + " is not thread-safe: a mix with additions "
+                                                       + "or removals needs readWrite or exclusive locking");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jad.treenode.workload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The command line entry point of the workload driver:
+ * <pre>
+ *      WorkloadDriver run &lt;config.json&gt; &lt;result.json&gt;
+ *      WorkloadDriver compare &lt;baseline.json&gt; &lt;candidate.json&gt; [tolerance]
+ * </pre>
+ * {@code run} replays the configured workload and writes its measurements;
+ * {@code compare} prints how the candidate run differs from the baseline and exits with status 1 on a regression,
+ * so that a build can be gated on it, or with status 2 if the runs replayed different workloads.
+ */
+public final class WorkloadDriver {
+    static final double DEFAULT_TOLERANCE = 0.10;
+
+    private WorkloadDriver() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if ((args.length == 3) && "run".equals(args[0])) {
+            final WorkloadConfig config = WorkloadConfig.read(Path.of(args[1]));
+            final WorkloadResult result = new WorkloadRunner(config).run();
+            result.write(Path.of(args[2]));
+            System.out.print(result);
+        } else if (((args.length == 3) || (args.length == 4)) && "compare".equals(args[0])) {
+            final double tolerance = (args.length == 4) ? Double.parseDouble(args[3]) : WorkloadDriver.DEFAULT_TOLERANCE;
+            final RunComparison comparison = RunComparison.compare(WorkloadResult.read(Path.of(args[1])),
+                                                                   WorkloadResult.read(Path.of(args[2])), tolerance);
+            System.out.println(comparison);
+            if (!comparison.isComparable()) {
+                System.err.println("The baseline cannot be compared with this run");
+                System.exit(2);
+            }
+            if (comparison.hasRegressions()) {
+                System.err.printf("%d regression(s) beyond %.0f%%%n", comparison.getRegressions().size(),
+                                  tolerance * 100);
+                System.exit(1);
+            }
+        } else {
+            System.err.println("usage: WorkloadDriver run <config.json> <result.json>");
+            System.err.println("       WorkloadDriver compare <baseline.json> <candidate.json> [tolerance]");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jad.treenode.workload;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The measurements of a workload run, written as JSON so that runs can be compared.
+ * Allocation figures are -1 when the JVM cannot measure per-thread allocations.
+ */
+final class WorkloadResult {
+    String implementation;
+    int trees;
+    int nodesPerTree;
+    int threads;
+    String locking;
+    long seed;
+    String javaVersion;
+
+    long operations;
+    double durationSeconds;
+    double throughputPerSecond;
+    long allocatedBytes = -1;
+    double allocatedBytesPerSecond = -1;
+    double allocatedBytesPerOperation = -1;
+    Latency latency;
+    Map<String, OperationStatistics> byOperation = new LinkedHashMap<>();
+
+    static final class Latency {
+        long count;
+        double meanNanos;
+        long p50Nanos;
+        long p99Nanos;
+        long p999Nanos;
+        long maxNanos;
+
+        static Latency of(final LatencyHistogram histogram) {
+            final Latency latency = new Latency();
+            latency.count = histogram.getCount();
+            latency.meanNanos = histogram.getMean();
+            latency.p50Nanos = histogram.getPercentile(50);
+            latency.p99Nanos = histogram.getPercentile(99);
+            latency.p999Nanos = histogram.getPercentile(99.9);
+            latency.maxNanos = histogram.getMax();
+            return latency;
+        }
+    }
+
+    static final class OperationStatistics {
+        double throughputPerSecond;
+        Latency latency;
+    }
+
+    static WorkloadResult read(final Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return WorkloadConfig.GSON.fromJson(reader, WorkloadResult.class);
+        }
+    }
+
+    void write(final Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            WorkloadConfig.GSON.toJson(this, writer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s, %d thread(s), %d tree(s) of %d nodes, %s locking%n",
+                                     this.implementation, this.threads, this.trees, this.nodesPerTree, this.locking));
+        builder.append(String.format("%d operations in %.3fs: %.0f ops/s, p50 %dns, p99 %dns, p99.9 %dns, max %dns%n",
+                                     this.operations, this.durationSeconds, this.throughputPerSecond,
+                                     this.latency.p50Nanos, this.latency.p99Nanos, this.latency.p999Nanos,
+                                     this.latency.maxNanos));
+        if (this.allocatedBytes >= 0) {
+            builder.append(String.format("allocated %.1f MB/s, %.0f bytes/op%n",
+                                         this.allocatedBytesPerSecond / (1024 * 1024), this.allocatedBytesPerOperation));
+        }
+        for (final Map.Entry<String, OperationStatistics> entry : this.byOperation.entrySet()) {
+            final Latency operation = entry.getValue().latency;
+            builder.append(String.format("  %-20s %10d ops, p50 %dns, p99 %dns, p99.9 %dns%n", entry.getKey(),
+                                         operation.count, operation.p50Nanos, operation.p99Nanos, operation.p999Nanos));
+        }
+        return builder.toString();
+    }
+}
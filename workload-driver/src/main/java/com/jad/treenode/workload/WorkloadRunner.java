@@ -0,0 +1,236 @@
+package com.jad.treenode.workload;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Replays a workload: generates the trees, then runs the operations of the mix on worker threads.
+ * Each worker draws its operations from its own seeded random source, so a run replays the same operation
+ * sequences; it first runs unrecorded warmup operations, waits for the other workers, then records the latency
+ * of every measured operation, lock wait included, and the bytes it allocated.
+ * Workers are named {@code workload-worker-<n>} so that profilers and thread dumps can tell them apart.
+ */
+final class WorkloadRunner {
+    private final WorkloadConfig config;
+    private final Operation[] operations;
+    private final double[] cumulativeWeights;
+
+    /**
+     * Results of the operations, folded together so that they cannot be optimized away.
+     */
+    private final LongAdder sink = new LongAdder();
+
+    WorkloadRunner(final WorkloadConfig config) {
+        config.validate();
+        this.config = config;
+        final List<Operation> operations = new ArrayList<>();
+        final List<Double> weights = new ArrayList<>();
+        for (final Map.Entry<String, Double> entry : config.mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                operations.add(Operation.fromName(entry.getKey()));
+                weights.add(entry.getValue());
+            }
+        }
+        this.operations = operations.toArray(new Operation[0]);
+        this.cumulativeWeights = new double[weights.size()];
+        double total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            this.cumulativeWeights[i] = total;
+        }
+    }
+
+    private Operation nextOperation(final Random random) {
+        final double target = random.nextDouble() * this.cumulativeWeights[this.cumulativeWeights.length - 1];
+        for (int i = 0; i < this.cumulativeWeights.length - 1; i++) {
+            if (target < this.cumulativeWeights[i]) {
+                return this.operations[i];
+            }
+        }
+        return this.operations[this.operations.length - 1];
+    }
+
+    /**
+     * Per-thread allocated bytes, or null if the JVM cannot measure them.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final List<WorkloadTree> trees;
+        private final CountDownLatch warmedUp;
+        private final CountDownLatch start;
+        private final com.sun.management.ThreadMXBean allocations;
+        private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+        private long allocatedBytes = -1;
+
+        /**
+         * Whether this worker counted down the warmup latch, which a failure must not do twice.
+         */
+        private volatile boolean warmupCounted;
+
+        private Worker(final int index, final List<WorkloadTree> trees, final CountDownLatch warmedUp,
+                       final CountDownLatch start, final com.sun.management.ThreadMXBean allocations) {
+            this.index = index;
+            this.trees = trees;
+            this.warmedUp = warmedUp;
+            this.start = start;
+            this.allocations = allocations;
+            for (int i = 0; i < this.histograms.length; i++) {
+                this.histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            final Random random = new Random(WorkloadRunner.this.config.seed * 31 + this.index + 1);
+            long result = 0;
+            for (long i = 0; i < WorkloadRunner.this.config.warmupOperationsPerThread; i++) {
+                result += this.runOne(random, false);
+            }
+            this.warmupCounted = true;
+            this.warmedUp.countDown();
+            try {
+                this.start.await();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final long allocatedBefore = (this.allocations == null) ? -1 : this.allocations.getCurrentThreadAllocatedBytes();
+            for (long i = 0; i < WorkloadRunner.this.config.operationsPerThread; i++) {
+                result += this.runOne(random, true);
+            }
+            if (this.allocations != null) {
+                this.allocatedBytes = this.allocations.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            }
+            WorkloadRunner.this.sink.add(result);
+        }
+
+        private long runOne(final Random random, final boolean record) {
+            final Operation operation = WorkloadRunner.this.nextOperation(random);
+            final WorkloadTree tree = this.trees.get(random.nextInt(this.trees.size()));
+            final Integer value = tree.lookupValue(random);
+            final Lock lock = tree.lockFor(operation, WorkloadRunner.this.config.locking);
+            final long begin = System.nanoTime();
+            final long result;
+            if (lock == null) {
+                result = tree.run(operation, random, value);
+            } else {
+                lock.lock();
+                try {
+                    result = tree.run(operation, random, value);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            final long elapsed = System.nanoTime() - begin;
+            if (record) {
+                this.histograms[operation.ordinal()].record(elapsed);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Runs the workload.
+     *
+     * @return the measurements
+     * @throws InterruptedException if interrupted while waiting for the workers
+     * @throws IllegalStateException if a worker failed
+     */
+    WorkloadResult run() throws InterruptedException {
+        final Random random = new Random(this.config.seed);
+        final List<WorkloadTree> trees = new ArrayList<>(this.config.trees);
+        for (int i = 0; i < this.config.trees; i++) {
+            trees.add(WorkloadTree.generate(this.config, random));
+        }
+        final com.sun.management.ThreadMXBean allocations = WorkloadRunner.allocationCounter();
+        final CountDownLatch warmedUp = new CountDownLatch(this.config.threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Worker> workers = new ArrayList<>(this.config.threads);
+        final List<Thread> threads = new ArrayList<>(this.config.threads);
+        for (int i = 0; i < this.config.threads; i++) {
+            final Worker worker = new Worker(i, trees, warmedUp, start, allocations);
+            final Thread thread = new Thread(worker, "workload-worker-" + i);
+            thread.setUncaughtExceptionHandler((t, exception) -> {
+                failure.compareAndSet(null, exception);
+                if (!worker.warmupCounted) {
+                    // the other workers must not wait for a warmup that will never end
+                    worker.warmupCounted = true;
+                    warmedUp.countDown();
+                }
+            });
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        warmedUp.await();
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final long duration = System.nanoTime() - begin;
+        if (failure.get() != null) {
+            throw new IllegalStateException("A workload worker failed", failure.get());
+        }
+        return this.result(workers, duration, allocations != null);
+    }
+
+    private WorkloadResult result(final List<Worker> workers, final long durationNanos, final boolean allocationsMeasured) {
+        final WorkloadResult result = new WorkloadResult();
+        result.implementation = this.config.implementation;
+        result.trees = this.config.trees;
+        result.nodesPerTree = this.config.nodesPerTree;
+        result.threads = this.config.threads;
+        result.locking = this.config.locking;
+        result.seed = this.config.seed;
+        result.javaVersion = System.getProperty("java.vm.name") + " " + System.getProperty("java.version");
+        final double seconds = durationNanos / 1e9;
+        final LatencyHistogram total = new LatencyHistogram();
+        for (final Operation operation : Operation.values()) {
+            final LatencyHistogram histogram = new LatencyHistogram();
+            for (final Worker worker : workers) {
+                histogram.merge(worker.histograms[operation.ordinal()]);
+            }
+            if (histogram.getCount() > 0) {
+                final WorkloadResult.OperationStatistics statistics = new WorkloadResult.OperationStatistics();
+                statistics.throughputPerSecond = histogram.getCount() / seconds;
+                statistics.latency = WorkloadResult.Latency.of(histogram);
+                result.byOperation.put(operation.getName(), statistics);
+                total.merge(histogram);
+            }
+        }
+        result.operations = total.getCount();
+        result.durationSeconds = seconds;
+        result.throughputPerSecond = total.getCount() / seconds;
+        result.latency = WorkloadResult.Latency.of(total);
+        if (allocationsMeasured) {
+            long allocated = 0;
+            for (final Worker worker : workers) {
+                allocated += worker.allocatedBytes;
+            }
+            result.allocatedBytes = allocated;
+            result.allocatedBytesPerSecond = allocated / seconds;
+            result.allocatedBytesPerOperation = (double) allocated / total.getCount();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+package com.jad.treenode.workload;
+
+import com.jad.treenode.INaryTree;
+import com.jad.treenode.KeyedNaryTreeNode;
+import com.jad.treenode.NaryTree;
+import com.jad.treenode.NaryTreeNode;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A generated tree of Integer values and the state the operations of a workload share on it:
+ * the nodes new values are added under, the values added so far, which removals take back,
+ * and the lock guarding the tree.
+ * Generated values are 0 to nodesPerTree - 1, in breadth-first order; looked-up values are drawn from them
+ * with a zipf distribution, the popular ranks being shuffled across the tree.
+ */
+final class WorkloadTree {
+    private final INaryTree<Integer> tree;
+    private final List<INaryTree<Integer>> parents;
+    private final Integer[] lookups;
+    private final Distribution lookupRanks;
+    private final Deque<Added> added = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger nextValue;
+    private final ReadWriteLock lock;
+
+    private record Added(INaryTree<Integer> parent, Integer value) {
+    }
+
+    private WorkloadTree(final INaryTree<Integer> tree, final List<INaryTree<Integer>> parents,
+                         final Integer[] lookups, final double valueSkew) {
+        this.tree = tree;
+        this.parents = parents;
+        this.lookups = lookups;
+        this.lookupRanks = Distribution.zipf(lookups.length, valueSkew);
+        this.nextValue = new AtomicInteger(lookups.length);
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Creates an empty tree of the configured implementation.
+     *
+     * @param implementation - NaryTree, NaryTreeNode, KeyedNaryTreeNode or the name of a class implementing INaryTree
+     *                       with a public constructor taking the root value
+     * @param root           - the value of the root
+     * @return the tree
+     * @throws IllegalArgumentException if the implementation cannot be instantiated
+     */
+    @SuppressWarnings("unchecked")
+    static INaryTree<Integer> create(final String implementation, final Integer root) {
+        switch (implementation) {
+            case "NaryTree":
+                return new NaryTree<>(root);
+            case "NaryTreeNode":
+                return new NaryTreeNode<>(root);
+            case "KeyedNaryTreeNode":
+                return KeyedNaryTreeNode.byValue(root, Comparator.<Integer>naturalOrder());
+            default:
+                try {
+                    final Class<?> type = Class.forName(implementation);
+                    if (!INaryTree.class.isAssignableFrom(type)) {
+                        throw new IllegalArgumentException(implementation + " does not implement INaryTree");
+                    }
+                    return (INaryTree<Integer>) type.getConstructor(Object.class).newInstance(root);
+                } catch (final ClassNotFoundException | NoSuchMethodException | InstantiationException
+                               | IllegalAccessException | InvocationTargetException exception) {
+                    throw new IllegalArgumentException("Cannot instantiate " + implementation, exception);
+                }
+        }
+    }
+
+    /**
+     * Generates a tree breadth first: each node gets a number of children drawn from the fan-out distribution,
+     * until the tree has its nodes. Nodes at the maximum depth get no children; when every open node got its
+     * children before the tree is complete, generation goes on under randomly chosen nodes.
+     *
+     * @param config - the workload configuration
+     * @param random - the source of the random choices
+     * @return the generated tree
+     */
+    static WorkloadTree generate(final WorkloadConfig config, final Random random) {
+        final int nodeCount = config.nodesPerTree;
+        final Integer[] values = new Integer[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            values[i] = Integer.valueOf(i);
+        }
+        final INaryTree<Integer> tree = WorkloadTree.create(config.implementation, values[0]);
+        final List<INaryTree<Integer>> parents = new ArrayList<>();
+        final List<Integer> parentDepths = new ArrayList<>();
+        final Deque<INaryTree<Integer>> open = new ArrayDeque<>();
+        final Deque<Integer> openDepths = new ArrayDeque<>();
+        if (config.maxDepth > 0) {
+            open.add(tree);
+            openDepths.add(0);
+            parents.add(tree);
+            parentDepths.add(0);
+        }
+        int next = 1;
+        while (next < nodeCount) {
+            final INaryTree<Integer> parent;
+            final int depth;
+            final int childCount;
+            if (open.isEmpty()) {
+                final int index = random.nextInt(parents.size());
+                parent = parents.get(index);
+                depth = parentDepths.get(index);
+                childCount = 1;
+            } else {
+                parent = open.poll();
+                depth = openDepths.poll();
+                childCount = config.fanOut.sample(random);
+            }
+            for (int i = 0; (i < childCount) && (next < nodeCount); i++, next++) {
+                final Integer value = values[next];
+                parent.add(value);
+                if (depth + 1 < config.maxDepth) {
+                    // getNodeFromElement compares by identity: the boxed value just added finds its node
+                    final INaryTree<Integer> child = parent.getNodeFromElement(value);
+                    open.add(child);
+                    openDepths.add(depth + 1);
+                    parents.add(child);
+                    parentDepths.add(depth + 1);
+                }
+            }
+        }
+        final List<Integer> lookups = new ArrayList<>(List.of(values));
+        Collections.shuffle(lookups, random);
+        return new WorkloadTree(tree, parents, lookups.toArray(new Integer[0]), config.valueSkew);
+    }
+
+    INaryTree<Integer> getTree() {
+        return this.tree;
+    }
+
+    /**
+     * @param operation - an operation
+     * @param locking   - readWrite, exclusive or none
+     * @return the lock to hold while running the operation on this tree, or null if none
+     */
+    Lock lockFor(final Operation operation, final String locking) {
+        return switch (locking) {
+            case "none" -> null;
+            case "exclusive" -> this.lock.writeLock();
+            default -> operation.isMutating() ? this.lock.writeLock() : this.lock.readLock();
+        };
+    }
+
+    /**
+     * @param random - the source of the random choices
+     * @return a generated value, popular values being drawn more often
+     */
+    Integer lookupValue(final Random random) {
+        return this.lookups[this.lookupRanks.sample(random)];
+    }
+
+    /**
+     * Runs an operation, under the lock returned by {@link #lockFor(Operation, String)}.
+     * Additions add a fresh value under a random node; removals take back the last value added,
+     * and remove nothing if every added value was already removed.
+     *
+     * @param operation - the operation
+     * @param random    - the source of the random choices
+     * @param value     - the looked-up value, for the read operations
+     * @return a number derived from the result, so that the call cannot be optimized away
+     */
+    long run(final Operation operation, final Random random, final Integer value) {
+        switch (operation) {
+            case ADD: {
+                final INaryTree<Integer> parent = this.parents.get(random.nextInt(this.parents.size()));
+                final Integer added = this.nextValue.getAndIncrement();
+                if (parent.add(added)) {
+                    this.added.addLast(new Added(parent, added));
+                    return 1;
+                }
+                return 0;
+            }
+            case REMOVE: {
+                final Added last = this.added.pollLast();
+                return ((last != null) && last.parent().remove(last.value())) ? 1 : 0;
+            }
+            default:
+                return operation.read(this.tree, value);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.jad.treenode.workload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void smallLatenciesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 50; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(99));
+        assertEquals(50, histogram.getMax());
+        assertEquals(25.5, histogram.getMean());
+    }
+
+    @Test
+    void bucketsBoundTheRelativeError() {
+        for (long nanos = 1; nanos < Long.MAX_VALUE / 3; nanos = nanos * 3 + 1) {
+            final long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(nanos));
+            assertTrue(highest >= nanos);
+            assertTrue(highest - nanos <= nanos / 32, "bucket of " + nanos + " ends at " + highest);
+        }
+        assertEquals(LatencyHistogram.bucketOf(64), LatencyHistogram.bucketOf(65));
+        assertEquals(LatencyHistogram.bucketOf(63) + 1, LatencyHistogram.bucketOf(64));
+        assertEquals(LatencyHistogram.bucketOf(64) + 1, LatencyHistogram.bucketOf(66));
+    }
+
+    @Test
+    void percentilesOfMergedHistograms() {
+        final LatencyHistogram fast = new LatencyHistogram();
+        final LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            fast.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1_000_000);
+        }
+        fast.merge(slow);
+        assertEquals(1_000, fast.getPercentile(50), 1_000 / 32);
+        assertEquals(1_000, fast.getPercentile(99), 1_000 / 32);
+        assertEquals(1_000_000, fast.getPercentile(99.9), 1_000_000 / 32);
+        assertEquals(1_000_000, fast.getMax());
+        assertEquals(0, new LatencyHistogram().getPercentile(99));
+        assertThrows(IllegalArgumentException.class, () -> fast.getPercentile(101));
+    }
+}
@@ -0,0 +1,65 @@
+package com.jad.treenode.workload;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunComparisonTest {
+    private static WorkloadResult result(final double throughput, final long p99, final double bytesPerOperation) {
+        final WorkloadResult result = new WorkloadResult();
+        result.implementation = "NaryTree";
+        result.threads = 4;
+        result.trees = 1;
+        result.nodesPerTree = 1_000;
+        result.locking = "readWrite";
+        result.throughputPerSecond = throughput;
+        result.allocatedBytesPerOperation = bytesPerOperation;
+        result.latency = new WorkloadResult.Latency();
+        result.latency.p50Nanos = 1_000;
+        result.latency.p99Nanos = p99;
+        return result;
+    }
+
+    @Test
+    void withinTolerance() {
+        final WorkloadResult baseline = RunComparisonTest.result(10_000, 50_000, 100);
+        assertFalse(RunComparison.compare(baseline, RunComparisonTest.result(9_500, 54_000, 105), 0.10).hasRegressions());
+        assertFalse(RunComparison.compare(baseline, RunComparisonTest.result(20_000, 10_000, 10), 0.0).hasRegressions());
+    }
+
+    @Test
+    void regressions() {
+        final WorkloadResult baseline = RunComparisonTest.result(10_000, 50_000, 100);
+        assertEquals(1, RunComparison.compare(baseline, RunComparisonTest.result(8_000, 50_000, 100), 0.10)
+                .getRegressions().size());
+        assertEquals(1, RunComparison.compare(baseline, RunComparisonTest.result(10_000, 60_000, 100), 0.10)
+                .getRegressions().size());
+        assertEquals(3, RunComparison.compare(baseline, RunComparisonTest.result(8_000, 60_000, 150), 0.10)
+                .getRegressions().size());
+        assertTrue(RunComparison.compare(baseline, RunComparisonTest.result(8_000, 60_000, 150), 0.10).toString()
+                           .contains("REGRESSION throughput"));
+    }
+
+    @Test
+    void unmeasuredAllocationsAreNotCompared() {
+        final WorkloadResult baseline = RunComparisonTest.result(10_000, 50_000, -1);
+        assertFalse(RunComparison.compare(baseline, RunComparisonTest.result(10_000, 50_000, 500), 0.10).hasRegressions());
+        assertThrows(IllegalArgumentException.class,
+                     () -> RunComparison.compare(baseline, baseline, -0.1));
+    }
+
+    @Test
+    void differentWorkloadsAreNotCompared() {
+        final WorkloadResult baseline = RunComparisonTest.result(10_000, 50_000, 100);
+        assertTrue(RunComparison.compare(baseline, baseline, 0.10).isComparable());
+        final WorkloadResult candidate = RunComparisonTest.result(20_000, 10_000, 10);
+        candidate.threads = 8;
+        final RunComparison comparison = RunComparison.compare(baseline, candidate, 0.10);
+        assertFalse(comparison.isComparable());
+        assertFalse(comparison.hasRegressions());
+        assertTrue(comparison.toString().startsWith("MISMATCH"));
+        candidate.threads = 4;
+        candidate.implementation = "KeyedNaryTreeNode";
+        assertFalse(RunComparison.compare(baseline, candidate, 0.10).isComparable());
+    }
+}
@@ -0,0 +1,93 @@
+package com.jad.treenode.workload;
+
+import com.jad.treenode.INaryTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadTreeTest {
+    private static WorkloadConfig config(final String implementation, final Distribution fanOut, final int maxDepth) {
+        final WorkloadConfig config = new WorkloadConfig();
+        config.implementation = implementation;
+        config.nodesPerTree = 500;
+        config.fanOut = fanOut;
+        config.maxDepth = maxDepth;
+        return config;
+    }
+
+    @Test
+    void generatedTreesHaveTheirNodesWithinTheDepth() {
+        for (final String implementation : new String[]{"NaryTree", "NaryTreeNode", "KeyedNaryTreeNode"}) {
+            final INaryTree<Integer> tree = WorkloadTree.generate(
+                    WorkloadTreeTest.config(implementation, Distribution.uniform(0, 6), 5), new Random(1)).getTree();
+            assertEquals(500, tree.levels().mapToInt(level -> level.size()).sum(), implementation);
+            assertTrue(tree.levels().count() <= 6, implementation);
+        }
+        final INaryTree<Integer> chain = WorkloadTree.generate(
+                WorkloadTreeTest.config("NaryTree", Distribution.fixed(0), 3), new Random(1)).getTree();
+        assertEquals(500, chain.levels().mapToInt(level -> level.size()).sum());
+        assertEquals(4, chain.levels().count());
+    }
+
+    @Test
+    void generationIsReproducible() {
+        final WorkloadConfig config = WorkloadTreeTest.config("NaryTree", Distribution.geometric(3, 10), 8);
+        assertEquals(WorkloadTree.generate(config, new Random(9)).getTree().toPrefixList(),
+                     WorkloadTree.generate(config, new Random(9)).getTree().toPrefixList());
+    }
+
+    @Test
+    void addThenRemoveRestoresTheTree() {
+        final WorkloadTree tree = WorkloadTree.generate(
+                WorkloadTreeTest.config("NaryTree", Distribution.uniform(1, 4), 6), new Random(3));
+        final Random random = new Random(4);
+        assertEquals(0, tree.run(Operation.REMOVE, random, null));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, tree.run(Operation.ADD, random, null));
+        }
+        assertEquals(520, tree.run(Operation.SIZE, random, null));
+        assertEquals(1, tree.run(Operation.CONTAINS, random, 519));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, tree.run(Operation.REMOVE, random, null));
+        }
+        assertEquals(500, tree.run(Operation.SIZE, random, null));
+        assertEquals(0, tree.run(Operation.CONTAINS, random, 519));
+    }
+
+    @Test
+    void runnerMeasuresEveryOperation() throws InterruptedException {
+        final WorkloadConfig config = WorkloadTreeTest.config("NaryTree", Distribution.uniform(1, 4), 6);
+        config.trees = 2;
+        config.threads = 2;
+        config.warmupOperationsPerThread = 100;
+        config.operationsPerThread = 1_000;
+        config.mix = Map.of("contains", 3.0, "add", 1.0, "remove", 1.0);
+        final WorkloadResult result = new WorkloadRunner(config).run();
+        assertEquals(2_000, result.operations);
+        assertEquals(3, result.byOperation.size());
+        assertEquals(2_000, result.byOperation.values().stream().mapToLong(statistics -> statistics.latency.count).sum());
+        assertTrue(result.throughputPerSecond > 0);
+        assertTrue(result.latency.p50Nanos <= result.latency.p99Nanos);
+    }
+
+    @Test
+    void invalidConfigurations() {
+        final WorkloadConfig config = WorkloadTreeTest.config("NaryTree", Distribution.uniform(1, 4), 6);
+        config.mix = Map.of("compact", 1.0);
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.mix = Map.of("contains", 1.0);
+        config.locking = "optimistic";
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.locking = "none";
+        config.validate();
+        config.mix = Map.of("contains", 1.0, "add", 1.0);
+        assertThrows(IllegalArgumentException.class, config::validate);
+        config.mix = Map.of("contains", 1.0, "remove", 0.0);
+        config.validate();
+        assertThrows(IllegalArgumentException.class, () -> WorkloadTree.create("java.lang.String", 0));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.uniform(4, 1).validate());
+    }
+}